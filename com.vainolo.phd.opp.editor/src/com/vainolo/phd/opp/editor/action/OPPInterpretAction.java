@@ -6,6 +6,8 @@
  *******************************************************************************/
 package com.vainolo.phd.opp.editor.action;
 
+import java.util.logging.Level;
+
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.resource.ImageDescriptor;
@@ -16,6 +18,7 @@ import org.eclipse.ui.PlatformUI;
 import com.vainolo.phd.opp.editor.OPPGraphicalEditor;
 import com.vainolo.phd.opp.editor.OPPEditorPlugin;
 import com.vainolo.phd.opp.interpreter.OPPInterpreter;
+import com.vainolo.phd.opp.utilities.OPPLogger;
 
 public class OPPInterpretAction extends Action {
   public static final String INTERPRET_ID = "Interpret";
@@ -38,6 +41,8 @@ public class OPPInterpretAction extends Action {
     (new Thread(new Runnable() {
       @Override
       public void run() {
+        // show the execution details in the log view
+        OPPLogger.setLevel(Level.FINE);
         OPPInterpreter.INSTANCE.interpret(processName, container);
       }
     })).start();
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.benchmarks;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vainolo.phd.opp.interpreter.OPPDiagramRepository;
+import com.vainolo.phd.opp.interpreter.OPPDirectoryDiagramRepository;
+import com.vainolo.phd.opp.interpreter.OPPInterpreter;
+import com.vainolo.phd.opp.interpreter.OPPProcessExecutionResult;
+import com.vainolo.phd.opp.model.OPPPackage;
+import com.vainolo.phd.opp.utilities.OPPLogger;
+
+/**
+ * Execute the diagrams shipped in the "OPP Examples" directory end-to-end. The directory is searched in the current
+ * directory and its parent, or can be given in the "opp.examples" system property. Dialogs are replaced by the
+ * standard input and output because the JVM is headless; the output is discarded and the input always enters the same
+ * number.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class OPPExampleDiagramBenchmark {
+
+  private static final String INPUT = "10\n";
+
+  @Param({ "fib/Run Fib", "Count From N to 0", "Parallel Output" })
+  public String diagram;
+
+  private OPPDiagramRepository repository;
+  private String opdName;
+  private PrintStream originalOut;
+  private InputStream originalIn;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    OPPLogger.setLevel(java.util.logging.Level.WARNING);
+    OPPPackage.eINSTANCE.eClass();
+    File file = new File(findExamplesDirectory(), diagram + ".opp");
+    repository = new OPPDirectoryDiagramRepository(file.getParentFile());
+    opdName = file.getName().substring(0, file.getName().length() - ".opp".length());
+    if (repository.loadDiagram(opdName) == null)
+      throw new IllegalStateException("Could not load diagram " + file);
+
+    originalOut = System.out;
+    originalIn = System.in;
+    System.setOut(new PrintStream(new OutputStream() {
+      @Override
+      public void write(int b) {
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+      }
+    }));
+    // endless input that repeats the same line
+    System.setIn(new InputStream() {
+      private final byte[] input = INPUT.getBytes(StandardCharsets.US_ASCII);
+      private int position = 0;
+
+      @Override
+      public int read() {
+        byte b = input[position];
+        position = (position + 1) % input.length;
+        return b;
+      }
+    });
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    System.setOut(originalOut);
+    System.setIn(originalIn);
+  }
+
+  private static File findExamplesDirectory() {
+    String property = System.getProperty("opp.examples");
+    if (property != null)
+      return new File(property);
+    File examples = new File("OPP Examples");
+    if (examples.isDirectory())
+      return examples;
+    return new File("../OPP Examples");
+  }
+
+  @Benchmark
+  public OPPProcessExecutionResult execute() {
+    return OPPInterpreter.INSTANCE.interpret(opdName, repository);
+  }
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vainolo.phd.opp.interpreter.OPPGlobalHeap;
+import com.vainolo.phd.opp.interpreter.inzoomedprocessinstance.OPPInZoomedProcessExecutionPlan;
+import com.vainolo.phd.opp.interpreter.inzoomedprocessinstance.OPPInZoomedProcessInstanceHeap;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.model.OPPFactory;
+import com.vainolo.phd.opp.model.OPPObject;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagramKind;
+import com.vainolo.phd.opp.model.OPPProcess;
+import com.vainolo.phd.opp.model.OPPProcessKind;
+import com.vainolo.phd.opp.model.OPPStructuralLinkAggregator;
+import com.vainolo.phd.opp.model.OPPStructuralLinkAggregatorKind;
+import com.vainolo.phd.opp.model.OPPStructuralLinkPart;
+import com.vainolo.phd.opp.utilities.OPPLogger;
+
+/**
+ * Reading and writing variables in the heap of an in-zoomed process, for a main object and for a part of an object.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OPPInZoomedProcessInstanceHeapBenchmark {
+
+  private OPPInZoomedProcessInstanceHeap heap;
+  private OPPObject main;
+  private OPPObject part;
+  private OPPObjectInstance value;
+
+  @Setup
+  public void setUp() {
+    OPPLogger.setLevel(java.util.logging.Level.WARNING);
+    OPPObjectProcessDiagram opd = OPPFactory.eINSTANCE.createOPPObjectProcessDiagram();
+    opd.setKind(OPPObjectProcessDiagramKind.COMPOUND);
+    OPPProcess process = OPPFactory.eINSTANCE.createOPPProcess();
+    process.setKind(OPPProcessKind.COMPOUND);
+    opd.getNodes().add(process);
+    main = createObject(process, "main");
+    OPPObject whole = createObject(process, "whole");
+    part = createObject(process, "part");
+    OPPStructuralLinkAggregator aggregator = OPPFactory.eINSTANCE.createOPPStructuralLinkAggregator();
+    aggregator.setKind(OPPStructuralLinkAggregatorKind.AGGREGATION);
+    process.getNodes().add(aggregator);
+    OPPStructuralLinkPart wholeLink = OPPFactory.eINSTANCE.createOPPStructuralLinkPart();
+    wholeLink.setSource(whole);
+    wholeLink.setTarget(aggregator);
+    opd.getLinks().add(wholeLink);
+    OPPStructuralLinkPart partLink = OPPFactory.eINSTANCE.createOPPStructuralLinkPart();
+    partLink.setSource(aggregator);
+    partLink.setTarget(part);
+    opd.getLinks().add(partLink);
+
+    heap = new OPPInZoomedProcessInstanceHeap(new OPPGlobalHeap(), OPPInZoomedProcessExecutionPlan.compile(opd, 0));
+    value = OPPObjectInstance.createFromValue(42);
+    heap.setVariable(main, value);
+    heap.setVariable(part, value);
+  }
+
+  private static OPPObject createObject(OPPProcess process, String name) {
+    OPPObject object = OPPFactory.eINSTANCE.createOPPObject();
+    object.setName(name);
+    process.getNodes().add(object);
+    return object;
+  }
+
+  @Benchmark
+  public OPPObjectInstance getMainVariable() {
+    return heap.getVariable(main);
+  }
+
+  @Benchmark
+  public void setMainVariable() {
+    heap.setVariable(main, value);
+  }
+
+  @Benchmark
+  public OPPObjectInstance getPartVariable() {
+    return heap.getVariable(part);
+  }
+
+  @Benchmark
+  public void setPartVariable() {
+    heap.setVariable(part, value);
+  }
+}
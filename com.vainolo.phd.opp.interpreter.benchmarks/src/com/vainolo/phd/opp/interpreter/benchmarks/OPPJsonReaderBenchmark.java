@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.eclipsesource.json.Json;
+import com.vainolo.phd.opp.interpreter.json.OPPJsonReader;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.utilities.OPPLogger;
+
+/**
+ * Parsing of JSON documents into object instances, through a minimal-json document and streaming from a reader.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OPPJsonReaderBenchmark {
+
+  @Param({ "10", "1000" })
+  public int size;
+
+  private String json;
+  private OPPJsonReader reader;
+
+  @Setup
+  public void setUp() {
+    OPPLogger.setLevel(java.util.logging.Level.WARNING);
+    reader = new OPPJsonReader();
+    StringBuilder builder = new StringBuilder("{\"items\":[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0)
+        builder.append(',');
+      builder.append("{\"id\":").append(i).append(",\"name\":\"item ").append(i).append("\",\"price\":").append(i * 1.5)
+          .append(",\"available\":true}");
+    }
+    json = builder.append("]}").toString();
+  }
+
+  @Benchmark
+  public OPPObjectInstance read() {
+    return reader.read(Json.parse(json));
+  }
+
+  @Benchmark
+  public OPPObjectInstance readStreaming() throws IOException {
+    return reader.read(new StringReader(json));
+  }
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vainolo.phd.opp.interpreter.types.OPPComplexObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPListObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+
+/**
+ * Creation and copying of object instances. The "uuid" benchmark adds the random {@link UUID} that every instance used
+ * to create, as a reference for the cost of the old instance identity.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OPPObjectInstanceBenchmark {
+
+  @Param({ "1000" })
+  public int size;
+
+  private int counter = 0;
+  private OPPListObjectInstance list;
+  private OPPComplexObjectInstance complex;
+
+  @Setup
+  public void setUp() {
+    list = OPPObjectInstance.createListInstance();
+    complex = OPPObjectInstance.createCompositeInstance();
+    for (int i = 0; i < size; i++) {
+      list.addLast(OPPObjectInstance.createFromValue(i));
+      complex.setPart("part" + i, OPPObjectInstance.createFromValue(i));
+    }
+  }
+
+  @Benchmark
+  public OPPObjectInstance createNumber() {
+    return OPPObjectInstance.createFromValue(new BigDecimal(counter++));
+  }
+
+  @Benchmark
+  public OPPObjectInstance createNumberWithUuid(Blackhole blackhole) {
+    blackhole.consume(UUID.randomUUID());
+    return OPPObjectInstance.createFromValue(new BigDecimal(counter++));
+  }
+
+  @Benchmark
+  public OPPObjectInstance createString() {
+    return OPPObjectInstance.createFromValue("value");
+  }
+
+  @Benchmark
+  public OPPObjectInstance createList() {
+    return OPPObjectInstance.createListInstance();
+  }
+
+  @Benchmark
+  public OPPObjectInstance copyList() {
+    return OPPObjectInstance.createFromExistingInstance(list);
+  }
+
+  @Benchmark
+  public OPPObjectInstance copyAndChangeList() {
+    OPPListObjectInstance copy = (OPPListObjectInstance) OPPObjectInstance.createFromExistingInstance(list);
+    copy.addLast(OPPObjectInstance.createFromValue(counter++));
+    return copy;
+  }
+
+  @Benchmark
+  public OPPObjectInstance copyComplex() {
+    return OPPObjectInstance.createFromExistingInstance(complex);
+  }
+}
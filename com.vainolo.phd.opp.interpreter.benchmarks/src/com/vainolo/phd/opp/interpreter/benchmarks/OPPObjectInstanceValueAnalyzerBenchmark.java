@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vainolo.phd.opp.interpreter.OPPObjectInstanceValueAnalyzer;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.model.OPPFactory;
+import com.vainolo.phd.opp.model.OPPState;
+import com.vainolo.phd.opp.utilities.OPPLogger;
+
+/**
+ * Parsing of literals written in object names, and checking object values against states.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OPPObjectInstanceValueAnalyzerBenchmark {
+
+  private OPPObjectInstanceValueAnalyzer analyzer;
+  private OPPState comparisonState;
+  private OPPState stringState;
+  private OPPObjectInstance number;
+  private OPPObjectInstance string;
+
+  @Setup
+  public void setUp() {
+    OPPLogger.setLevel(java.util.logging.Level.WARNING);
+    analyzer = new OPPObjectInstanceValueAnalyzer();
+    comparisonState = OPPFactory.eINSTANCE.createOPPState();
+    comparisonState.setName("x > 2");
+    stringState = OPPFactory.eINSTANCE.createOPPState();
+    stringState.setName("\"yes\"");
+    number = OPPObjectInstance.createFromValue(10);
+    string = OPPObjectInstance.createFromValue("yes");
+  }
+
+  @Benchmark
+  public OPPObjectInstance parseNumberLiteral() {
+    return analyzer.calculateOPMObjectValue("12345");
+  }
+
+  @Benchmark
+  public OPPObjectInstance parseStringLiteral() {
+    return analyzer.calculateOPMObjectValue("\"some text\"");
+  }
+
+  @Benchmark
+  public OPPObjectInstance parseNonLiteral() {
+    return analyzer.calculateOPMObjectValue("res");
+  }
+
+  @Benchmark
+  public boolean numberInComparisonState() {
+    return analyzer.isObjectInstanceInState(number, comparisonState);
+  }
+
+  @Benchmark
+  public boolean stringInState() {
+    return analyzer.isObjectInstanceInState(string, stringState);
+  }
+}
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.vainolo.phd.opp.interpreter.builtin.OPPCompareProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.general.OPPObjectCopyingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.io.OPPConsoleWritingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.math.OPPBinaryMathOpProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.math.OPPUnaryMathOpProcessInstance;
+
+public class OPPBuiltInProcessRegistryTest {
+
+  private final OPPBuiltInProcessRegistry registry = OPPBuiltInProcessRegistry.INSTANCE;
+
+  @Test
+  public void test_lookupIgnoresCase() {
+    assertTrue(registry.createInstance("Console Writing") instanceof OPPConsoleWritingProcessInstance);
+    assertTrue(registry.createInstance("CONSOLE OUTPUT") instanceof OPPConsoleWritingProcessInstance);
+    assertTrue(registry.createInstance("Copy Object") instanceof OPPObjectCopyingProcessInstance);
+  }
+
+  @Test
+  public void test_eachLookupCreatesNewInstance() {
+    assertNotSame(registry.createInstance("+"), registry.createInstance("+"));
+  }
+
+  @Test
+  public void test_operators() {
+    assertTrue(registry.createInstance("-") instanceof OPPBinaryMathOpProcessInstance);
+    assertTrue(registry.createInstance("-a") instanceof OPPUnaryMathOpProcessInstance);
+    assertTrue(registry.createInstance("a<=b") instanceof OPPCompareProcessInstance);
+  }
+
+  @Test
+  public void test_unknownName() {
+    assertNull(registry.createInstance("no such process"));
+    assertNull(registry.createInstance("no such process"));
+    assertNull(registry.createInstance(null));
+    assertFalse(registry.isBuiltIn("no such process"));
+  }
+
+  @Test
+  public void test_register() {
+    assertFalse(registry.isBuiltIn("registry test process"));
+    registry.register(OPPConsoleWritingProcessInstance::new, "Registry Test Process");
+    try {
+      assertTrue(registry.isBuiltIn("registry test process"));
+      assertTrue(registry.createInstance("REGISTRY TEST PROCESS") instanceof OPPConsoleWritingProcessInstance);
+      assertTrue(registry.getNames().contains("registry test process"));
+    } finally {
+      registry.unregister("Registry Test Process");
+    }
+    assertFalse(registry.isBuiltIn("registry test process"));
+    assertNull(registry.createInstance("REGISTRY TEST PROCESS"));
+  }
+}
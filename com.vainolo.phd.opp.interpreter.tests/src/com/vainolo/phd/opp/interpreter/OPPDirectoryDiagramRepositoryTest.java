@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vainolo.phd.opp.model.OPPFactory;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagramKind;
+import com.vainolo.phd.opp.model.OPPProcess;
+import com.vainolo.phd.opp.utilities.OPPTestUtilities;
+
+public class OPPDirectoryDiagramRepositoryTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private OPPDirectoryDiagramRepository repository;
+
+  @Before
+  public void setUp() {
+    repository = new OPPDirectoryDiagramRepository(folder.getRoot());
+  }
+
+  static void saveCompoundOPD(File directory, String name) throws IOException {
+    OPPObjectProcessDiagram opd = OPPFactory.eINSTANCE.createOPPObjectProcessDiagram();
+    opd.setName(name);
+    opd.setKind(OPPObjectProcessDiagramKind.COMPOUND);
+    OPPProcess process = OPPTestUtilities.createOPPProcess(name);
+    process.setMain(true);
+    opd.getNodes().add(process);
+    ResourceSetImpl resourceSet = new ResourceSetImpl();
+    resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(Resource.Factory.Registry.DEFAULT_EXTENSION, new XMIResourceFactoryImpl());
+    Resource resource = resourceSet.createResource(URI.createFileURI(new File(directory, name + ".opp").getAbsolutePath()));
+    resource.getContents().add(opd);
+    resource.save(null);
+  }
+
+  @Test
+  public void test_loadDiagram() throws IOException {
+    saveCompoundOPD(folder.getRoot(), "Test");
+    OPPObjectProcessDiagram opd = repository.loadDiagram("Test");
+    assertNotNull(opd);
+    assertEquals("Test", opd.getName());
+    assertSame(opd, repository.loadDiagram("Test"));
+  }
+
+  @Test
+  public void test_loadMissingDiagram() {
+    assertNull(repository.loadDiagram("Missing"));
+  }
+
+  @Test
+  public void test_getFilePath() {
+    assertEquals(new File(folder.getRoot(), "data.json").getPath(), repository.getFilePath("data.json"));
+    String absolute = new File(folder.getRoot().getParentFile(), "other.json").getAbsolutePath();
+    assertEquals(absolute, repository.getFilePath(absolute));
+  }
+}
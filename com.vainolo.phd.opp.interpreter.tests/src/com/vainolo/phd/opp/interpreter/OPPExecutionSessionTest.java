@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+import com.vainolo.phd.opp.interpreter.OPPProcessExecutionResult.OPMProcessExecutionResultType;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.utilities.OPPLogTarget;
+
+public class OPPExecutionSessionTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private OPPDiagramRepository repository;
+
+  @Before
+  public void setUp() throws IOException {
+    repository = new OPPDirectoryDiagramRepository(folder.getRoot());
+    OPPDirectoryDiagramRepositoryTest.saveCompoundOPD(folder.getRoot(), "Empty");
+  }
+
+  @Test
+  public void test_execute() {
+    OPPExecutionSession session = new OPPExecutionSession(repository);
+    OPPProcessExecutionResult result = session.execute("Empty");
+    assertEquals(OPMProcessExecutionResultType.FINISHED, result.getResultType());
+    assertSame(session, result.getInstance().getSession());
+    assertEquals(1, session.getExecutedProcessCount());
+    assertTrue(session.getScheduler().isShutdown());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void test_sessionExecutesOnlyOnce() {
+    OPPExecutionSession session = new OPPExecutionSession(repository);
+    session.execute("Empty");
+    session.execute("Empty");
+  }
+
+  @Test
+  public void test_missingDiagram() {
+    assertNull(new OPPExecutionSession(repository).execute("Missing"));
+  }
+
+  @Test
+  public void test_sessionsAreIndependent() {
+    OPPExecutionSession first = new OPPExecutionSession(repository);
+    OPPExecutionSession second = new OPPExecutionSession(repository);
+    first.getGlobalHeap().setVariable("x", OPPObjectInstance.createFromValue(1));
+    assertNull(second.getGlobalHeap().getVariable("x"));
+
+    first.stop();
+    assertTrue(first.isStopped());
+    assertFalse(second.isStopped());
+    assertEquals(OPMProcessExecutionResultType.FINISHED, second.execute("Empty").getResultType());
+  }
+
+  @Test
+  public void test_concurrentExecutions() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<OPPProcessExecutionResult>> results = Lists.newArrayList();
+      for (int i = 0; i < 32; i++) {
+        results.add(executor.submit(() -> OPPInterpreter.INSTANCE.interpret("Empty", repository)));
+      }
+      for (Future<OPPProcessExecutionResult> result : results) {
+        assertEquals(OPMProcessExecutionResultType.FINISHED, result.get().getResultType());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void test_repositoryRunsDoNotClearLogView() {
+    AtomicInteger clears = new AtomicInteger();
+    OPPInterpreter.INSTANCE.setLogView(new OPPLogTarget() {
+      @Override
+      public void clear() {
+        clears.incrementAndGet();
+      }
+
+      @Override
+      public void appendLine(String line) {
+      }
+    });
+    try {
+      OPPInterpreter.INSTANCE.interpret("Empty", repository);
+      OPPInterpreter.INSTANCE.interpret("Empty", OPPInterpreter.INSTANCE.createSession(repository));
+      assertEquals(0, clears.get());
+    } finally {
+      OPPInterpreter.INSTANCE.setLogView(null);
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.vainolo.phd.opp.interpreter.types.OPPNumberObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+
+public class OPPGlobalHeapTest {
+
+  private OPPGlobalHeap heap;
+  private List<String> changes;
+
+  @Before
+  public void setUp() {
+    heap = new OPPGlobalHeap();
+    changes = Lists.newArrayList();
+  }
+
+  private static OPPObjectInstance value(long value) {
+    return OPPObjectInstance.createFromValue(value);
+  }
+
+  private void listen(String name) {
+    heap.addListener(name, (variable, oldValue, newValue) -> changes.add(variable + ":" + oldValue + "->" + newValue));
+  }
+
+  @Test
+  public void test_setGetAndClear() {
+    assertNull(heap.getVariable("x"));
+    heap.setVariable("x", value(1));
+    assertEquals(value(1), heap.getVariable("x"));
+    heap.clearVariable("x");
+    assertNull(heap.getVariable("x"));
+  }
+
+  @Test
+  public void test_compareAndSet() {
+    assertTrue(heap.compareAndSetVariable("x", null, value(1)));
+    assertFalse(heap.compareAndSetVariable("x", null, value(2)));
+    assertFalse(heap.compareAndSetVariable("x", value(2), value(3)));
+    assertTrue(heap.compareAndSetVariable("x", value(1), value(3)));
+    assertEquals(value(3), heap.getVariable("x"));
+    assertTrue(heap.compareAndSetVariable("x", value(3), null));
+    assertNull(heap.getVariable("x"));
+  }
+
+  @Test
+  public void test_listenersAreCalledForTheirVariableOnly() {
+    listen("x");
+    heap.setVariable("x", value(1));
+    heap.setVariable("y", value(2));
+    heap.compareAndSetVariable("x", value(1), value(3));
+    heap.compareAndSetVariable("x", value(1), value(4));
+    heap.computeVariable("x", (name, current) -> OPPNumberObjectInstance.add(OPPNumberObjectInstance.asNumber(current), OPPNumberObjectInstance.asNumber(value(1))));
+    heap.clearVariable("x");
+    heap.clearVariable("x");
+    assertEquals(Lists.newArrayList("x:null->1", "x:1->3", "x:3->4", "x:4->null"), changes);
+  }
+
+  @Test
+  public void test_concurrentComputeDoesNotLoseUpdates() throws Exception {
+    int threads = 8;
+    int increments = 1000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = Lists.newArrayList();
+    for (int i = 0; i < threads; i++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int j = 0; j < increments; j++) {
+          heap.computeVariable("counter", (name, current) -> value(current == null ? 1 : ((OPPNumberObjectInstance) current).getLongValue() + 1));
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    assertEquals(value(threads * increments), heap.getVariable("counter"));
+  }
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OPPInterpreterLauncherTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+  private int launch(String... args) throws IOException {
+    return new OPPInterpreterLauncher(new PrintStream(err)).run(args);
+  }
+
+  private String writeNames(String names) throws IOException {
+    File file = folder.newFile("names.txt");
+    Files.write(file.toPath(), names.getBytes(StandardCharsets.UTF_8));
+    return file.getPath();
+  }
+
+  @Test
+  public void test_wrongArguments() throws IOException {
+    assertEquals(2, launch());
+    assertEquals(2, launch(folder.getRoot().getPath()));
+    assertEquals(2, launch("-names", new File(folder.getRoot(), "missing").getPath(), folder.getRoot().getPath()));
+    assertEquals(2, launch("-unknown", folder.getRoot().getPath()));
+    assertEquals(2, launch("-parallelism"));
+    assertEquals(2, launch(new File(folder.getRoot(), "missing").getPath()));
+  }
+
+  @Test
+  public void test_executeDiagramsFromArguments() throws IOException {
+    OPPDirectoryDiagramRepositoryTest.saveCompoundOPD(folder.getRoot(), "Empty");
+    assertEquals(0, launch(folder.getRoot().getPath(), "Empty", "Empty"));
+    assertEquals(1, launch(folder.getRoot().getPath(), "Empty", "Missing"));
+  }
+
+  @Test
+  public void test_executeDiagramsFromNamesFile() throws IOException {
+    OPPDirectoryDiagramRepositoryTest.saveCompoundOPD(folder.getRoot(), "Empty");
+    assertEquals(0, launch("-names", writeNames("Empty\n\nEmpty\n"), folder.getRoot().getPath(), "Empty"));
+    assertTrue(err.toString().contains("FINISHED Empty"));
+  }
+
+  @Test
+  public void test_executeConcurrentSessions() throws IOException {
+    OPPDirectoryDiagramRepositoryTest.saveCompoundOPD(folder.getRoot(), "Empty");
+    assertEquals(0, launch("-sessions", "2", "-names", writeNames("Empty\nEmpty\nEmpty\nEmpty\n"), folder.getRoot().getPath()));
+    assertEquals(2, launch("-sessions", "0", folder.getRoot().getPath()));
+  }
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vainolo.phd.opp.interpreter.types.OPPComplexObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPListObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.model.OPPFactory;
+import com.vainolo.phd.opp.model.OPPObject;
+
+public class OPPLiteralValueCacheTest {
+
+  private OPPObject object;
+
+  @Before
+  public void setUp() {
+    object = OPPFactory.eINSTANCE.createOPPObject();
+  }
+
+  @Test
+  public void test_nameAndInitialValueLiterals() {
+    object.setName("42");
+    assertEquals(OPPObjectInstance.createFromValue(42), OPPLiteralValueCache.INSTANCE.getLiteralValue(object));
+
+    object.setInitialValue("\"hello\"");
+    assertEquals("hello", OPPLiteralValueCache.INSTANCE.getLiteralValue(object).getStringValue());
+  }
+
+  @Test
+  public void test_objectsThatAreNotLiterals() {
+    object.setName("Counter");
+    assertNull(OPPLiteralValueCache.INSTANCE.getLiteralValue(object));
+    assertNull(OPPLiteralValueCache.INSTANCE.getLiteralValue(object));
+
+    object.setName("7");
+    assertEquals(OPPObjectInstance.createFromValue(7), OPPLiteralValueCache.INSTANCE.getLiteralValue(object));
+  }
+
+  @Test
+  public void test_changingTheValueDoesNotChangeTheCache() {
+    object.setName("[1,2,3]");
+    OPPListObjectInstance list = (OPPListObjectInstance) OPPLiteralValueCache.INSTANCE.getLiteralValue(object);
+    list.removeFirst();
+    assertEquals("[1,2,3]", OPPLiteralValueCache.INSTANCE.getLiteralValue(object).toString());
+
+    object.setName("{\"a\":1}");
+    OPPComplexObjectInstance complex = (OPPComplexObjectInstance) OPPLiteralValueCache.INSTANCE.getLiteralValue(object);
+    complex.setPart("a", OPPObjectInstance.createFromValue(2));
+    assertEquals(OPPObjectInstance.createFromValue(1),
+        ((OPPComplexObjectInstance) OPPLiteralValueCache.INSTANCE.getLiteralValue(object)).getPart("a"));
+  }
+}
@@ -12,6 +12,8 @@ import java.util.Random;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.vainolo.phd.opp.interpreter.types.OPPComplexObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPListObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance.InstanceKind;
 
@@ -61,6 +63,32 @@ public class OPPObjectInstanceTest {
     assertEquals(number1.toString(), instance1.getStringValue());
   }
 
+  // Copy tests
+  @Test
+  public void test_copiedListIsIndependentOfOriginal() {
+    OPPListObjectInstance list = OPPObjectInstance.createListInstance();
+    list.addLast(OPPObjectInstance.createFromValue(number1));
+    OPPListObjectInstance copy = (OPPListObjectInstance) OPPObjectInstance.createFromExistingInstance(list);
+    assertNotSame(list, copy);
+    copy.addLast(OPPObjectInstance.createFromValue(number2));
+    list.removeFirst();
+    assertEquals(0, list.count());
+    assertEquals(2, copy.count());
+    assertEquals(number1, copy.get(1).getNumericalValue());
+  }
+
+  @Test
+  public void test_copiedCompositeIsIndependentOfOriginal() {
+    OPPComplexObjectInstance object = OPPObjectInstance.createCompositeInstance();
+    object.setPart("a", OPPObjectInstance.createFromValue(number1));
+    OPPComplexObjectInstance copy = (OPPComplexObjectInstance) OPPObjectInstance.createFromExistingInstance(object);
+    copy.setPart("b", OPPObjectInstance.createFromValue(number2));
+    object.removePart("a");
+    assertEquals(0, object.count());
+    assertEquals(2, copy.count());
+    assertEquals(number1, copy.getPart("a").getNumericalValue());
+  }
+
   @Before
   public void setUp() {
     Random r = new Random();
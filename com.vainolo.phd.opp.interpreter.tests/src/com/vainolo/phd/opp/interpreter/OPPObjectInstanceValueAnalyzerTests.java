@@ -18,6 +18,7 @@ import org.junit.Test;
 import com.google.common.collect.Lists;
 import com.vainolo.phd.opp.interpreter.OPPObjectInstanceValueAnalyzer;
 import com.vainolo.phd.opp.interpreter.types.OPPComplexObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPListObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 
 public class OPPObjectInstanceValueAnalyzerTests {
@@ -78,6 +79,21 @@ public class OPPObjectInstanceValueAnalyzerTests {
     }
   }
 
+  @Test
+  public void test_calculateLongRangeLiteralValue() {
+    OPPListObjectInstance list = (OPPListObjectInstance) valueAnalyzer.calculateOPMObjectValue("[3000000000..3000000002]");
+    assertEquals(3, list.count());
+    assertEquals(3000000000L, list.getFirst().getNumericalValue().longValue());
+    assertEquals(3000000002L, list.getLast().getNumericalValue().longValue());
+
+    try {
+      valueAnalyzer.calculateOPMObjectValue("[0..3000000000]");
+      fail("Range is larger than a list.");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("too large"));
+    }
+  }
+
   @Before
   public void setup() {
     valueAnalyzer = new OPPObjectInstanceValueAnalyzer();
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OPPOutputFilePoolTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private OPPOutputFilePool pool;
+  private Path file;
+
+  @Before
+  public void setUp() {
+    pool = new OPPOutputFilePool();
+    file = folder.getRoot().toPath().resolve("out.txt");
+  }
+
+  @After
+  public void tearDown() {
+    pool.close();
+  }
+
+  private String contents() throws IOException {
+    return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void test_writeReplacesContents() throws Exception {
+    Files.write(file, "old contents".getBytes(StandardCharsets.UTF_8));
+    pool.write(file, "first", false);
+    pool.write(file, "second", false);
+    pool.flush(file);
+    assertEquals("second", contents());
+  }
+
+  @Test
+  public void test_appendKeepsContents() throws Exception {
+    Files.write(file, "old\n".getBytes(StandardCharsets.UTF_8));
+    for (int i = 0; i < 1000; i++) {
+      pool.write(file, i + "\n", true);
+    }
+    pool.close();
+    String[] lines = contents().split("\n");
+    assertEquals(1001, lines.length);
+    assertEquals("old", lines[0]);
+    assertEquals("999", lines[1000]);
+  }
+
+  @Test
+  public void test_pathsAreNormalized() throws Exception {
+    pool.write(file, "a", true);
+    pool.write(folder.getRoot().toPath().resolve("sub/../out.txt"), "b", true);
+    pool.flush(file);
+    assertEquals("ab", contents());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void test_closedPool() throws Exception {
+    pool.close();
+    pool.write(file, "a", true);
+  }
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vainolo.phd.opp.interpreter.OPPScheduler.OPPSchedulerKind;
+
+public class OPPSchedulerTest {
+
+  private OPPScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    scheduler = OPPScheduler.create(OPPSchedulerKind.PLATFORM, 2);
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  private int nestedSum(int depth) throws Exception {
+    if (depth == 0)
+      return 1;
+    CompletionService<Integer> completionService = scheduler.createCompletionService();
+    completionService.submit(() -> nestedSum(depth - 1));
+    completionService.submit(() -> nestedSum(depth - 1));
+    return scheduler.take(completionService).get() + scheduler.take(completionService).get();
+  }
+
+  @Test
+  public void test_nestingDeeperThanParallelismDoesNotDeadlock() throws Exception {
+    assertEquals(256, scheduler.submit(() -> nestedSum(8)).get(30, TimeUnit.SECONDS).intValue());
+  }
+
+  @Test
+  public void test_schedulerThreadIsDetected() throws Exception {
+    assertFalse(scheduler.isSchedulerThread());
+    assertTrue(scheduler.submit(() -> scheduler.isSchedulerThread()).get());
+  }
+
+  @Test
+  public void test_shutdownNow() {
+    scheduler.shutdownNow();
+    assertTrue(scheduler.isShutdown());
+  }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.model.OPPFactory;
+import com.vainolo.phd.opp.model.OPPState;
+
+public class OPPStatePredicateTest {
+
+  private static boolean matches(String stateName, Object value) {
+    OPPObjectInstance instance;
+    if (value instanceof String)
+      instance = OPPObjectInstance.createFromValue((String) value);
+    else if (value instanceof BigDecimal)
+      instance = OPPObjectInstance.createFromValue((BigDecimal) value);
+    else
+      instance = OPPObjectInstance.createFromValue(((Number) value).longValue());
+    return OPPStatePredicate.compile(stateName).matches(instance);
+  }
+
+  @Test
+  public void test_literals() {
+    assertTrue(matches("\"yes\"", "yes"));
+    assertTrue(matches("'yes'", "yes"));
+    assertTrue(matches("yes", "yes"));
+    assertFalse(matches("yes", "no"));
+    assertFalse(matches("\"5\"", 5));
+  }
+
+  @Test
+  public void test_numbers() {
+    assertTrue(matches("5", 5));
+    assertTrue(matches("5.0", 5));
+    assertTrue(matches("2.5", new BigDecimal("2.50")));
+    assertFalse(matches("5", 6));
+    assertTrue(matches("5", "5"));
+  }
+
+  @Test
+  public void test_comparisons() {
+    assertTrue(matches("x <= 5", 5));
+    assertFalse(matches("x < 5", 5));
+    assertTrue(matches("x >= 5", 5));
+    assertFalse(matches("x > 5", 5));
+    assertTrue(matches("x > 4.5", 5));
+    assertTrue(matches("x == 5", 5));
+    assertTrue(matches("x != 5", 6));
+    assertTrue(matches("x < 99999999999999999999", Long.MAX_VALUE));
+  }
+
+  @Test
+  public void test_unknownNamesNeverMatch() {
+    assertFalse(matches("not a state", 5));
+    assertFalse(matches("not a state", "not a state"));
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void test_invalidComparisonOperand() {
+    OPPStatePredicate.compile("x < y");
+  }
+
+  @Test
+  public void test_cacheRecompilesRenamedStates() {
+    OPPState state = OPPFactory.eINSTANCE.createOPPState();
+    state.setName("x < 5");
+    OPPStatePredicate predicate = OPPStatePredicateCache.INSTANCE.getPredicate(state);
+    assertSame(predicate, OPPStatePredicateCache.INSTANCE.getPredicate(state));
+    assertTrue(predicate.matches(OPPObjectInstance.createFromValue(4)));
+
+    state.setName("x > 5");
+    assertFalse(OPPStatePredicateCache.INSTANCE.getPredicate(state).matches(OPPObjectInstance.createFromValue(4)));
+  }
+
+  @Test
+  public void test_cacheSharesPredicatesByName() {
+    OPPStatePredicate predicate = OPPStatePredicateCache.INSTANCE.getPredicate("x >= 10");
+    assertSame(predicate, OPPStatePredicateCache.INSTANCE.getPredicate("x >= 10"));
+    OPPState state = OPPFactory.eINSTANCE.createOPPState();
+    state.setName("x >= 10");
+    assertSame(predicate, OPPStatePredicateCache.INSTANCE.getPredicate(state));
+  }
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.builtin;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.vainolo.phd.opp.interpreter.OPPProcessExecutionResult;
+import com.vainolo.phd.opp.interpreter.OPPScheduler;
+import com.vainolo.phd.opp.interpreter.OPPScheduler.OPPSchedulerKind;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.utilities.OPPLogger;
+
+public class OPPSleepProcessInstanceTest {
+
+  private static final int VIRTUAL_PROCESS_COUNT = 10000;
+  private static final int PARALLELISM = 8;
+  private static final int PLATFORM_ROUNDS = 4;
+  private static final long SLEEP_MILLIS = 500;
+
+  @Test
+  public void test_sleepsFractionsOfSeconds() throws Exception {
+    OPPSleepProcessInstance instance = new OPPSleepProcessInstance();
+    instance.setArgument("time", OPPObjectInstance.createFromValue(new BigDecimal("0.2")));
+    long start = System.nanoTime();
+    instance.call();
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+  }
+
+  @Test
+  public void test_virtualSchedulerFallsBackToPlatformThreads() {
+    OPPScheduler scheduler = OPPScheduler.create(OPPSchedulerKind.VIRTUAL, 2);
+    try {
+      OPPSchedulerKind expected = OPPScheduler.isVirtualThreadSupported() ? OPPSchedulerKind.VIRTUAL : OPPSchedulerKind.PLATFORM;
+      assertEquals(expected, scheduler.getKind());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Run many sleeping processes on the scheduler created for virtual threads: ten thousand if virtual threads are
+   * supported, or a few rounds of the parallelism of the platform thread pool otherwise.
+   */
+  @Test
+  public void test_concurrentSleepingProcesses() throws Exception {
+    Level level = OPPLogger.getLevel();
+    OPPLogger.setLevel(Level.WARNING);
+    OPPScheduler scheduler = OPPScheduler.create(OPPSchedulerKind.VIRTUAL, PARALLELISM);
+    try {
+      boolean virtual = scheduler.getKind() == OPPSchedulerKind.VIRTUAL;
+      int processCount = virtual ? VIRTUAL_PROCESS_COUNT : PARALLELISM * PLATFORM_ROUNDS;
+      long maximumMillis = virtual ? 30000 : processCount * SLEEP_MILLIS / 2;
+      List<Future<OPPProcessExecutionResult>> results = Lists.newArrayList();
+      long start = System.nanoTime();
+      for (int i = 0; i < processCount; i++) {
+        OPPSleepProcessInstance instance = new OPPSleepProcessInstance();
+        instance.setArgument("time", OPPObjectInstance.createFromValue(new BigDecimal(SLEEP_MILLIS).movePointLeft(3)));
+        results.add(scheduler.submit(instance));
+      }
+      for (Future<OPPProcessExecutionResult> result : results) {
+        result.get(60, TimeUnit.SECONDS);
+      }
+      long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      assertTrue("Sleeping processes did not run concurrently, took " + elapsed + " ms.", elapsed < maximumMillis);
+    } finally {
+      scheduler.shutdownNow();
+      OPPLogger.setLevel(level);
+    }
+  }
+}
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.builtin.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class OPPConsoleInputTest {
+
+  @Test
+  public void test_consecutiveReadsDoNotLoseBufferedInput() throws Exception {
+    InputStream originalIn = System.in;
+    try {
+      System.setIn(new ByteArrayInputStream("sum\n3\n4\n".getBytes(StandardCharsets.US_ASCII)));
+      assertEquals("sum", OPPConsoleInput.INSTANCE.readLine(null));
+      assertEquals("3", OPPConsoleInput.INSTANCE.readLine(null));
+      assertEquals("4", OPPConsoleInput.INSTANCE.readLine(null));
+      assertNull(OPPConsoleInput.INSTANCE.readLine(null));
+
+      System.setIn(new ByteArrayInputStream("again\n".getBytes(StandardCharsets.US_ASCII)));
+      assertEquals("again", OPPConsoleInput.INSTANCE.readLine(null));
+    } finally {
+      System.setIn(originalIn);
+    }
+  }
+}
@@ -8,11 +8,18 @@ package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
 import java.math.BigDecimal;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
+import com.vainolo.phd.opp.interpreter.OPPBuiltInProcessRegistry;
+import com.vainolo.phd.opp.interpreter.OPPDirectoryDiagramRepository;
+import com.vainolo.phd.opp.interpreter.OPPExecutionSession;
+import com.vainolo.phd.opp.interpreter.OPPInlineProcessInstance;
 import com.vainolo.phd.opp.interpreter.OPPProcessInstance;
 import com.vainolo.phd.opp.interpreter.OPPProcessInstanceFactory;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
@@ -33,6 +40,8 @@ import com.vainolo.phd.opp.model.OPPProcessKind;
  */
 public class OPPInZoomedProcessExecutableInstanceTest {
 
+  private OPPExecutionSession session;
+
   private OPPObjectProcessDiagram createInZoomedOPD(String name) {
     OPPObjectProcessDiagram opd = OPPFactory.eINSTANCE.createOPPObjectProcessDiagram();
     opd.setKind(OPPObjectProcessDiagramKind.COMPOUND);
@@ -81,7 +90,7 @@ public class OPPInZoomedProcessExecutableInstanceTest {
     opd.getNodes().add(object);
     opd.getLinks().add(createProceduralLink("c", OPPProceduralLinkKind.CONS_RES, innerProcess, object));
 
-    OPPProcessInstance instance = OPPProcessInstanceFactory.createExecutableInstance(opd);
+    OPPProcessInstance instance = OPPProcessInstanceFactory.createExecutableInstance(opd, session);
 
     instance.setArgument("a", OPPObjectInstance.createFromValue(new BigDecimal(1.0)));
     instance.setArgument("b", OPPObjectInstance.createFromValue(new BigDecimal(2.0)));
@@ -94,8 +103,77 @@ public class OPPInZoomedProcessExecutableInstanceTest {
     assertEquals(20.4, BigDecimal.class.cast(instance.getArgument("c").getValue()).doubleValue(), 0.01);
   }
 
+  @Test
+  public void test_execute_pureProcessReusesResults() throws Exception {
+    OPPObjectProcessDiagram opd = createInZoomedOPD("Pure Adding");
+    OPPProcess inZoomedProcess = createProcess("Pure Adding", OPPProcessKind.COMPOUND);
+    inZoomedProcess.setDescription("Adds two numbers. @pure");
+    opd.getNodes().add(inZoomedProcess);
+
+    OPPProcess innerProcess = createProcess("+", OPPProcessKind.BUILT_IN);
+    inZoomedProcess.getNodes().add(innerProcess);
+    OPPObject a = createObject("a");
+    opd.getNodes().add(a);
+    opd.getLinks().add(createProceduralLink("a", OPPProceduralLinkKind.INSTRUMENT, a, innerProcess));
+    OPPObject b = createObject("b");
+    opd.getNodes().add(b);
+    opd.getLinks().add(createProceduralLink("b", OPPProceduralLinkKind.INSTRUMENT, b, innerProcess));
+    OPPObject c = createObject("c");
+    opd.getNodes().add(c);
+    opd.getLinks().add(createProceduralLink("c", OPPProceduralLinkKind.CONS_RES, innerProcess, c));
+
+    OPPPureProcessResultCache cache = session.getPureProcessResults();
+    assertEquals(3, executeWithArguments(opd, 1, 2).intValue());
+    assertEquals(0, cache.getHitCount());
+    assertEquals(3, executeWithArguments(opd, 1, 2).intValue());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(5, executeWithArguments(opd, 1, 4).intValue());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.size());
+  }
+
+  private BigDecimal executeWithArguments(OPPObjectProcessDiagram opd, int a, int b) throws Exception {
+    OPPProcessInstance instance = OPPProcessInstanceFactory.createExecutableInstance(opd, session);
+    assertTrue(instance instanceof OPPPureProcessExecutableInstance);
+    instance.setArgument("a", OPPObjectInstance.createFromValue(a));
+    instance.setArgument("b", OPPObjectInstance.createFromValue(b));
+    instance.call();
+    return instance.getArgument("c").getNumericalValue();
+  }
+
+  @Test
+  public void test_execute_inlineProcessRunsOnCallingThread() throws Exception {
+    OPPBuiltInProcessRegistry.INSTANCE.register(ThreadRecordingProcessInstance::new, "Thread Recording");
+    try {
+      OPPObjectProcessDiagram opd = createInZoomedOPD("Inline Execution");
+      OPPProcess inZoomedProcess = createProcess("Inline Execution", OPPProcessKind.COMPOUND);
+      opd.getNodes().add(inZoomedProcess);
+      inZoomedProcess.getNodes().add(createProcess("Thread Recording", OPPProcessKind.BUILT_IN));
+
+      ThreadRecordingProcessInstance.executingThread = null;
+      OPPProcessInstanceFactory.createExecutableInstance(opd, session).call();
+      assertSame(Thread.currentThread(), ThreadRecordingProcessInstance.executingThread);
+    } finally {
+      OPPBuiltInProcessRegistry.INSTANCE.unregister("Thread Recording");
+    }
+  }
+
+  public static class ThreadRecordingProcessInstance extends OPPAbstractProcessInstance implements OPPInlineProcessInstance {
+    static volatile Thread executingThread;
+
+    @Override
+    protected void executing() {
+      executingThread = Thread.currentThread();
+    }
+  }
+
   @Before
   public void setUp() {
+    session = new OPPExecutionSession(new OPPDirectoryDiagramRepository(new File(".")));
+  }
 
+  @After
+  public void tearDown() {
+    session.close();
   }
-}
\ No newline at end of file
+}
\ No newline at end of file
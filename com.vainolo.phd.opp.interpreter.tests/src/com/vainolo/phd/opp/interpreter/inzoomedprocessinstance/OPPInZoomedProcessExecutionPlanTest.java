@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
+
+import static org.junit.Assert.*;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vainolo.phd.opp.model.OPPFactory;
+import com.vainolo.phd.opp.model.OPPObject;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagramKind;
+import com.vainolo.phd.opp.model.OPPProceduralLink;
+import com.vainolo.phd.opp.model.OPPProceduralLinkKind;
+import com.vainolo.phd.opp.model.OPPProcess;
+import com.vainolo.phd.opp.model.OPPProcessKind;
+import com.vainolo.phd.opp.utilities.OPPConstants;
+
+public class OPPInZoomedProcessExecutionPlanTest {
+
+  private OPPObjectProcessDiagram opd;
+  private OPPProcess inZoomedProcess;
+
+  private OPPProcess createProcess(String name, int y) {
+    OPPProcess process = OPPFactory.eINSTANCE.createOPPProcess();
+    process.setKind(OPPProcessKind.BUILT_IN);
+    process.setName(name);
+    process.setY(y);
+    inZoomedProcess.getNodes().add(process);
+    return process;
+  }
+
+  private OPPProceduralLink createLink(OPPProceduralLinkKind kind, OPPObject source, OPPProcess target) {
+    OPPProceduralLink link = OPPFactory.eINSTANCE.createOPPProceduralLink();
+    link.setKind(kind);
+    link.setSource(source);
+    link.setTarget(target);
+    opd.getLinks().add(link);
+    return link;
+  }
+
+  @Before
+  public void setUp() {
+    opd = OPPFactory.eINSTANCE.createOPPObjectProcessDiagram();
+    opd.setKind(OPPObjectProcessDiagramKind.COMPOUND);
+    opd.setName("Plan");
+    inZoomedProcess = OPPFactory.eINSTANCE.createOPPProcess();
+    inZoomedProcess.setKind(OPPProcessKind.COMPOUND);
+    inZoomedProcess.setName("Plan");
+    opd.getNodes().add(inZoomedProcess);
+  }
+
+  @Test
+  public void test_processesAreGroupedInBandsByY() {
+    OPPProcess p30 = createProcess("p30", 30);
+    OPPProcess p10a = createProcess("p10a", 10);
+    OPPProcess p10b = createProcess("p10b", 10);
+
+    OPPInZoomedProcessExecutionPlan plan = OPPInZoomedProcessExecutionPlan.compile(opd, 0);
+
+    assertEquals(10, plan.getNextBandY(0));
+    assertEquals(30, plan.getNextBandY(10));
+    assertEquals(Integer.MAX_VALUE, plan.getNextBandY(30));
+    assertEquals(2, plan.getBand(10).size());
+    assertTrue(plan.getBand(10).contains(p10a));
+    assertTrue(plan.getBand(10).contains(p10b));
+    assertEquals(p30, plan.getBand(30).get(0));
+    assertTrue(plan.getBand(20).isEmpty());
+  }
+
+  @Test
+  public void test_linkTables() {
+    OPPProcess process = createProcess("p", 10);
+    OPPObject a = OPPFactory.eINSTANCE.createOPPObject();
+    a.setName("a");
+    inZoomedProcess.getNodes().add(a);
+    createLink(OPPProceduralLinkKind.INSTRUMENT, a, process);
+    OPPProceduralLink agent = createLink(OPPProceduralLinkKind.AGENT, a, process);
+    agent.getSubKinds().add(OPPConstants.OPP_EVENT_LINK_SUBKIND);
+    createLink(OPPProceduralLinkKind.CONS_RES, a, process).getSubKinds().add(OPPConstants.OPP_CONDITIONAL_LINK_SUBKIND);
+
+    OPPInZoomedProcessExecutionPlan plan = OPPInZoomedProcessExecutionPlan.compile(opd, 0);
+    OPPInZoomedProcessExecutionPlan.OPPProcessPlan processPlan = plan.getProcessPlan(process);
+
+    assertEquals(2, processPlan.getIncomingDataLinks().size());
+    assertTrue(processPlan.getIncomingNonEventAgentLinks().isEmpty());
+    assertTrue(processPlan.isConditional());
+    assertEquals(1, plan.getObjectPlan(a).getOutgoingEventLinks().size());
+  }
+
+  @Test
+  public void test_cacheReturnsSamePlanForSameOPD() {
+    createProcess("p", 10);
+    OPPInZoomedProcessExecutionPlan plan = OPPInZoomedProcessExecutionPlanCache.INSTANCE.getPlan(opd);
+    assertSame(plan, OPPInZoomedProcessExecutionPlanCache.INSTANCE.getPlan(opd));
+    OPPInZoomedProcessExecutionPlanCache.INSTANCE.invalidate(opd);
+    assertNotSame(plan, OPPInZoomedProcessExecutionPlanCache.INSTANCE.getPlan(opd));
+  }
+
+  @Test
+  public void test_nodesMissingFromPlanAreAnalyzedOnce() {
+    OPPInZoomedProcessExecutionPlan plan = OPPInZoomedProcessExecutionPlan.compile(opd, 0);
+    OPPObject object = OPPFactory.eINSTANCE.createOPPObject();
+    object.setName("outside");
+    OPPProcess process = OPPFactory.eINSTANCE.createOPPProcess();
+    process.setName("outside");
+    assertSame(plan.getObjectPlan(object), plan.getObjectPlan(object));
+    assertSame(plan.getProcessPlan(process), plan.getProcessPlan(process));
+  }
+
+  @Test
+  public void test_concurrentRequestsGetSamePlan() throws Exception {
+    createProcess("p", 10);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Callable<OPPInZoomedProcessExecutionPlan> getPlan = () -> OPPInZoomedProcessExecutionPlanCache.INSTANCE.getPlan(opd);
+      List<Future<OPPInZoomedProcessExecutionPlan>> plans = executor.invokeAll(Collections.nCopies(16, getPlan));
+      for (Future<OPPInZoomedProcessExecutionPlan> plan : plans) {
+        assertSame(plans.get(0).get(), plan.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void test_cachedPlanDoesNotKeepOPDAlive() throws Exception {
+    createProcess("p", 10);
+    OPPInZoomedProcessExecutionPlanCache.INSTANCE.getPlan(opd);
+    WeakReference<OPPObjectProcessDiagram> reference = new WeakReference<>(opd);
+    opd = null;
+    inZoomedProcess = null;
+    for (int i = 0; i < 50 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(reference.get());
+  }
+}
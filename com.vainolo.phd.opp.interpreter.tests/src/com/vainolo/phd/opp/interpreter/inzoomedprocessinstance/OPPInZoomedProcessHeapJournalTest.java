@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.model.OPPFactory;
+import com.vainolo.phd.opp.model.OPPObject;
+import com.vainolo.phd.opp.model.OPPStructuralLinkAggregator;
+import com.vainolo.phd.opp.model.OPPStructuralLinkAggregatorKind;
+import com.vainolo.phd.opp.model.OPPStructuralLinkPart;
+
+public class OPPInZoomedProcessHeapJournalTest {
+
+  private OPPInZoomedProcessInstanceHeap heap;
+  private OPPInZoomedProcessHeapJournal journal;
+  private OPPObject a, b, whole, part;
+
+  @Before
+  public void setUp() {
+    heap = new OPPInZoomedProcessInstanceHeap();
+    journal = new OPPInZoomedProcessHeapJournal(0);
+    heap.addListener(journal);
+    a = createObject("a");
+    b = createObject("b");
+    whole = createObject("whole");
+    part = createObject("part");
+    OPPStructuralLinkAggregator agg = OPPFactory.eINSTANCE.createOPPStructuralLinkAggregator();
+    agg.setKind(OPPStructuralLinkAggregatorKind.AGGREGATION);
+    OPPStructuralLinkPart link = OPPFactory.eINSTANCE.createOPPStructuralLinkPart();
+    link.setSource(whole);
+    link.setTarget(agg);
+    link = OPPFactory.eINSTANCE.createOPPStructuralLinkPart();
+    link.setSource(agg);
+    link.setTarget(part);
+  }
+
+  private OPPObject createObject(String name) {
+    OPPObject object = OPPFactory.eINSTANCE.createOPPObject();
+    object.setName(name);
+    return object;
+  }
+
+  private List<OPPObject> changedObjects() {
+    List<OPPObject> objects = Lists.newArrayList();
+    for (int i = 0; i < journal.size(); i++) {
+      objects.add(journal.getObject(i));
+    }
+    return objects;
+  }
+
+  @Test
+  public void test_objectIsRecordedOncePerStep() {
+    heap.setVariable(b, OPPObjectInstance.createFromValue(1));
+    heap.setVariable(a, OPPObjectInstance.createFromValue(2));
+    heap.setVariable(b, OPPObjectInstance.createFromValue(3));
+    assertEquals(Lists.newArrayList(b, a), changedObjects());
+
+    journal.startStep();
+    assertEquals(0, journal.size());
+    heap.setVariable(a, OPPObjectInstance.createFromValue(4));
+    assertEquals(Lists.newArrayList(a), changedObjects());
+  }
+
+  @Test
+  public void test_settingPartRecordsWholeAndClearingIsNotRecorded() {
+    heap.setVariable(part, OPPObjectInstance.createFromValue(1));
+    assertEquals(Lists.newArrayList(whole), changedObjects());
+
+    journal.startStep();
+    heap.clearVariable(part);
+    heap.clearVariable(whole);
+    assertEquals(0, journal.size());
+  }
+
+  @Test
+  public void test_journalGrowsWithHeapSlots() {
+    for (int i = 0; i < 100; i++) {
+      heap.setVariable(createObject("o" + i), OPPObjectInstance.createFromValue(i));
+    }
+    assertEquals(100, journal.size());
+    journal.startStep();
+    assertEquals(0, journal.size());
+  }
+}
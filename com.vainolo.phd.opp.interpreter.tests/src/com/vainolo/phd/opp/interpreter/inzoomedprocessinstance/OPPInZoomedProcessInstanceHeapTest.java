@@ -8,8 +8,9 @@ package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Observable;
-import java.util.Observer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
@@ -17,14 +18,15 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.google.common.collect.Lists;
+import com.vainolo.phd.opp.interpreter.OPPGlobalHeap;
 import com.vainolo.phd.opp.interpreter.inzoomedprocessinstance.OPPInZoomedProcessInstanceHeap;
-import com.vainolo.phd.opp.interpreter.inzoomedprocessinstance.OPPInZoomedProcessInstanceHeap.OPMHeapChange;
-import com.vainolo.phd.opp.interpreter.inzoomedprocessinstance.OPPInZoomedProcessInstanceHeap.OPMHeapChangeType;
 import com.vainolo.phd.opp.interpreter.types.OPPComplexObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance.InstanceKind;
 import com.vainolo.phd.opp.model.OPPFactory;
 import com.vainolo.phd.opp.model.OPPObject;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+import com.vainolo.phd.opp.model.OPPProcess;
 import com.vainolo.phd.opp.model.OPPStructuralLinkAggregator;
 import com.vainolo.phd.opp.model.OPPStructuralLinkAggregatorKind;
 import com.vainolo.phd.opp.model.OPPStructuralLinkPart;
@@ -47,7 +49,7 @@ public class OPPInZoomedProcessInstanceHeapTest {
 
   @Test
   public void createVariable_ReceiveNotification() {
-    heap.addObserver(observer);
+    heap.addListener(observer);
     heap.setVariable(obj1, inst1);
     assertEquals(inst1.getNumericalValue(), observer.changes.get(0).objectInstance.getNumericalValue());
     heap.setVariable(obj1, inst2);
@@ -74,17 +76,17 @@ public class OPPInZoomedProcessInstanceHeapTest {
   @Test
   public void createVariablePart_ValidateNotificationOfParentAndPart() {
     createAggregationRelation(obj1, part1);
-    MyObserver observer = new MyObserver();
-    heap.addObserver(observer);
+    MyObserver observer = new MyObserver(heap);
+    heap.addListener(observer);
 
     heap.setVariable(part1, inst1);
 
     assertEquals(2, observer.changes.size());
-    assertEquals(OPMHeapChangeType.PART_ADDED, observer.changes.get(0).changeType);
+    assertEquals(ChangeType.PART_ADDED, observer.changes.get(0).changeType);
     assertEquals(obj1, observer.changes.get(0).object);
     assertEquals(part1, observer.changes.get(0).child);
     assertEquals(inst1.getNumericalValue(), observer.changes.get(0).childInstance.getNumericalValue());
-    assertEquals(OPMHeapChangeType.VARIABLE_SET, observer.changes.get(1).changeType);
+    assertEquals(ChangeType.VARIABLE_SET, observer.changes.get(1).changeType);
     assertTrue(observer.changes.get(1).objectInstance.kind == InstanceKind.COMPOSITE);
     assertEquals(inst1.getNumericalValue(), ((OPPComplexObjectInstance) observer.changes.get(0).objectInstance).getPart(part1.getName()).getNumericalValue());
   }
@@ -121,10 +123,109 @@ public class OPPInZoomedProcessInstanceHeapTest {
     assertEquals(1, ((OPPComplexObjectInstance) heap.getVariable(part2)).count());
   }
 
+  @Test
+  public void setGlobalVariablePartsFromTwoHeaps() {
+    createAggregationRelation(obj1, part1);
+    createAggregationRelation(obj1, part2);
+    obj1.setGlobal(true);
+    OPPGlobalHeap globalHeap = new OPPGlobalHeap();
+    OPPInZoomedProcessInstanceHeap heap1 = new OPPInZoomedProcessInstanceHeap(globalHeap);
+    OPPInZoomedProcessInstanceHeap heap2 = new OPPInZoomedProcessInstanceHeap(globalHeap);
+    observer = new MyObserver(heap1);
+    heap1.addListener(observer);
+
+    heap1.setVariable(part1, inst1);
+    heap2.setVariable(part2, inst2);
+
+    OPPComplexObjectInstance global = (OPPComplexObjectInstance) globalHeap.getVariable(obj1.getName());
+    assertEquals(2, global.count());
+    assertEquals(inst1.getNumericalValue(), heap2.getVariable(part1).getNumericalValue());
+    assertEquals(inst2.getNumericalValue(), heap1.getVariable(part2).getNumericalValue());
+    assertEquals(ChangeType.PART_ADDED, observer.changes.get(0).changeType);
+    assertEquals(ChangeType.VARIABLE_SET, observer.changes.get(1).changeType);
+  }
+
+  @Test
+  public void changeNestedGlobalPart_doesNotModifySharedValue() {
+    createAggregationRelation(obj1, part1);
+    createAggregationRelation(part1, part11);
+    obj1.setGlobal(true);
+    OPPGlobalHeap globalHeap = new OPPGlobalHeap();
+    heap = new OPPInZoomedProcessInstanceHeap(globalHeap);
+
+    heap.setVariable(part11, inst1);
+    OPPComplexObjectInstance sharedPart = (OPPComplexObjectInstance) ((OPPComplexObjectInstance) globalHeap.getVariable(obj1.getName())).getPart(part1.getName());
+    heap.setVariable(part11, inst2);
+    assertEquals(inst1.getNumericalValue(), sharedPart.getPart(part11.getName()).getNumericalValue());
+    assertEquals(inst2.getNumericalValue(), heap.getVariable(part11).getNumericalValue());
+
+    sharedPart = (OPPComplexObjectInstance) heap.getVariable(part1);
+    heap.clearVariable(part11);
+    assertNotNull(sharedPart.getPart(part11.getName()));
+    assertNull(heap.getVariable(part11));
+    assertNotNull(heap.getVariable(part1));
+  }
+
+  @Test
+  public void setNestedGlobalPartsConcurrently() throws Exception {
+    createAggregationRelation(obj1, part1);
+    createAggregationRelation(part1, part11);
+    createAggregationRelation(part1, objPart12);
+    obj1.setGlobal(true);
+    OPPGlobalHeap globalHeap = new OPPGlobalHeap();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List<Future<?>> results = Lists.newArrayList();
+      for (OPPObject part : new OPPObject[] { part11, objPart12 }) {
+        OPPInZoomedProcessInstanceHeap partHeap = new OPPInZoomedProcessInstanceHeap(globalHeap);
+        results.add(executor.submit(() -> {
+          for (int i = 0; i < 1000; i++) {
+            partHeap.setVariable(part, OPPObjectInstance.createFromValue(i));
+          }
+        }));
+      }
+      for (Future<?> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    heap = new OPPInZoomedProcessInstanceHeap(globalHeap);
+    assertEquals(OPPObjectInstance.createFromValue(999), heap.getVariable(part11));
+    assertEquals(OPPObjectInstance.createFromValue(999), heap.getVariable(objPart12));
+  }
+
+  @Test
+  public void heapWithPlan_usesPlanSlots() {
+    OPPObjectProcessDiagram opd = OPPFactory.eINSTANCE.createOPPObjectProcessDiagram();
+    OPPProcess process = OPPFactory.eINSTANCE.createOPPProcess();
+    opd.getNodes().add(process);
+    process.getNodes().add(obj1);
+    process.getNodes().add(part1);
+    process.getNodes().add(part11);
+    createAggregationRelation(obj1, part1);
+    createAggregationRelation(part1, part11);
+    OPPInZoomedProcessExecutionPlan plan = OPPInZoomedProcessExecutionPlan.compile(opd, 0);
+    assertEquals(3, plan.getSlotCount());
+    assertArrayEquals(new OPPObjectSlot[] { plan.getSlot(obj1), plan.getSlot(part1), plan.getSlot(part11) }, plan.getSlot(part11).getPath());
+    heap = new OPPInZoomedProcessInstanceHeap(new OPPGlobalHeap(), plan);
+
+    heap.setVariable(part11, inst1);
+    assertEquals(inst1, ((OPPComplexObjectInstance) heap.getVariable(part1)).getPart(part11.getName()));
+    assertEquals(inst1, heap.getVariable(part11));
+
+    // objects that are not in the plan get their own slots
+    heap.setVariable(obj2, inst2);
+    assertEquals(inst2, heap.getVariable(obj2));
+    heap.clearVariable(part11);
+    assertNull(heap.getVariable(part11));
+    assertNotNull(heap.getVariable(obj1));
+  }
+
   @Before
   public void setup() {
     heap = new OPPInZoomedProcessInstanceHeap();
-    observer = new MyObserver();
+    observer = new MyObserver(heap);
 
     obj1 = OPPFactory.eINSTANCE.createOPPObject();
     obj1.setName("Obj1");
@@ -160,12 +261,50 @@ public class OPPInZoomedProcessInstanceHeapTest {
     link.setTarget(child);
   }
 
-  class MyObserver implements Observer {
-    public List<OPMHeapChange> changes = Lists.newArrayList();
+  enum ChangeType {
+    VARIABLE_SET, PART_ADDED, VARIABLE_CLEARED
+  }
+
+  class Change {
+    ChangeType changeType;
+    OPPObject object;
+    OPPObjectInstance objectInstance;
+    OPPObject child;
+    OPPObjectInstance childInstance;
+  }
+
+  class MyObserver implements OPPInZoomedProcessHeapListener {
+    private final OPPInZoomedProcessInstanceHeap observed;
+    public List<Change> changes = Lists.newArrayList();
+
+    MyObserver(OPPInZoomedProcessInstanceHeap observed) {
+      this.observed = observed;
+    }
+
+    private Change add(ChangeType type, OPPObjectSlot slot) {
+      Change change = new Change();
+      change.changeType = type;
+      change.object = slot.getObject();
+      change.objectInstance = observed.getVariable(slot.getObject());
+      changes.add(0, change);
+      return change;
+    }
+
+    @Override
+    public void variableSet(OPPObjectSlot slot) {
+      add(ChangeType.VARIABLE_SET, slot);
+    }
+
+    @Override
+    public void partSet(OPPObjectSlot parent, OPPObjectSlot part) {
+      Change change = add(ChangeType.PART_ADDED, parent);
+      change.child = part.getObject();
+      change.childInstance = observed.getVariable(part.getObject());
+    }
 
     @Override
-    public void update(Observable o, Object arg) {
-      changes.add(0, OPMHeapChange.class.cast(arg));
+    public void variableCleared(OPPObjectSlot slot) {
+      add(ChangeType.VARIABLE_CLEARED, slot);
     }
   }
 }
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vainolo.phd.opp.interpreter.OPPGlobalHeap;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.model.OPPFactory;
+import com.vainolo.phd.opp.model.OPPObject;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagramKind;
+import com.vainolo.phd.opp.model.OPPProceduralLink;
+import com.vainolo.phd.opp.model.OPPProceduralLinkKind;
+import com.vainolo.phd.opp.model.OPPProcess;
+import com.vainolo.phd.opp.model.OPPProcessKind;
+import com.vainolo.phd.opp.model.OPPStructuralLinkAggregator;
+import com.vainolo.phd.opp.model.OPPStructuralLinkAggregatorKind;
+import com.vainolo.phd.opp.model.OPPStructuralLinkPart;
+import com.vainolo.phd.opp.utilities.analysis.OPPLinkExtensions;
+
+public class OPPInZoomedProcessReadySetTest {
+
+  private OPPObjectProcessDiagram opd;
+  private OPPProcess inZoomedProcess;
+  private OPPProcess process;
+  private OPPObject a, b;
+  private OPPInZoomedProcessInstanceHeap heap;
+  private OPPInZoomedProcessReadySet readySet;
+
+  private OPPObject createObject(String name) {
+    OPPObject object = OPPFactory.eINSTANCE.createOPPObject();
+    object.setName(name);
+    inZoomedProcess.getNodes().add(object);
+    OPPProceduralLink link = OPPFactory.eINSTANCE.createOPPProceduralLink();
+    link.setKind(OPPProceduralLinkKind.INSTRUMENT);
+    link.setSource(object);
+    link.setTarget(process);
+    opd.getLinks().add(link);
+    return object;
+  }
+
+  @Before
+  public void setUp() {
+    opd = OPPFactory.eINSTANCE.createOPPObjectProcessDiagram();
+    opd.setKind(OPPObjectProcessDiagramKind.COMPOUND);
+    opd.setName("Ready");
+    inZoomedProcess = OPPFactory.eINSTANCE.createOPPProcess();
+    inZoomedProcess.setKind(OPPProcessKind.COMPOUND);
+    inZoomedProcess.setName("Ready");
+    opd.getNodes().add(inZoomedProcess);
+    process = OPPFactory.eINSTANCE.createOPPProcess();
+    process.setKind(OPPProcessKind.BUILT_IN);
+    process.setName("+");
+    process.setY(10);
+    inZoomedProcess.getNodes().add(process);
+    a = createObject("a");
+    b = createObject("b");
+
+    heap = new OPPInZoomedProcessInstanceHeap();
+    readySet = new OPPInZoomedProcessReadySet(OPPInZoomedProcessExecutionPlan.compile(opd, 0),
+        link -> heap.getVariable(OPPLinkExtensions.getSourceObject(link)) != null);
+    heap.addListener(readySet);
+  }
+
+  @Test
+  public void test_processIsReadyWhenAllInputsAreSet() {
+    readySet.add(process);
+    assertTrue(readySet.removeReady().isEmpty());
+
+    heap.setVariable(a, OPPObjectInstance.createFromValue(new BigDecimal(1)));
+    assertTrue(readySet.removeReady().isEmpty());
+
+    heap.setVariable(b, OPPObjectInstance.createFromValue(new BigDecimal(2)));
+    assertTrue(readySet.removeReady().contains(process));
+    assertEquals(0, readySet.size());
+  }
+
+  @Test
+  public void test_processIsNotReadyAfterInputIsCleared() {
+    heap.setVariable(a, OPPObjectInstance.createFromValue(new BigDecimal(1)));
+    heap.setVariable(b, OPPObjectInstance.createFromValue(new BigDecimal(2)));
+    readySet.add(process);
+
+    heap.clearVariable(a);
+    assertTrue(readySet.removeReady().isEmpty());
+    assertEquals(1, readySet.size());
+
+    heap.setVariable(a, OPPObjectInstance.createFromValue(new BigDecimal(3)));
+    assertTrue(readySet.removeReady().contains(process));
+  }
+
+  @Test
+  public void test_processIsReadyWhenPartOfGlobalIsSetByAnotherInstance() {
+    OPPObject global = OPPFactory.eINSTANCE.createOPPObject();
+    global.setName("G");
+    global.setGlobal(true);
+    inZoomedProcess.getNodes().add(global);
+    OPPObject part = OPPFactory.eINSTANCE.createOPPObject();
+    part.setName("x");
+    inZoomedProcess.getNodes().add(part);
+    OPPStructuralLinkAggregator agg = OPPFactory.eINSTANCE.createOPPStructuralLinkAggregator();
+    agg.setKind(OPPStructuralLinkAggregatorKind.AGGREGATION);
+    OPPStructuralLinkPart partLink = OPPFactory.eINSTANCE.createOPPStructuralLinkPart();
+    partLink.setSource(global);
+    partLink.setTarget(agg);
+    partLink = OPPFactory.eINSTANCE.createOPPStructuralLinkPart();
+    partLink.setSource(agg);
+    partLink.setTarget(part);
+    OPPProcess reader = OPPFactory.eINSTANCE.createOPPProcess();
+    reader.setKind(OPPProcessKind.BUILT_IN);
+    reader.setName("Output");
+    reader.setY(20);
+    inZoomedProcess.getNodes().add(reader);
+    OPPProceduralLink link = OPPFactory.eINSTANCE.createOPPProceduralLink();
+    link.setKind(OPPProceduralLinkKind.INSTRUMENT);
+    link.setSource(part);
+    link.setTarget(reader);
+    opd.getLinks().add(link);
+
+    OPPGlobalHeap globalHeap = new OPPGlobalHeap();
+    OPPInZoomedProcessInstanceHeap localHeap = new OPPInZoomedProcessInstanceHeap(globalHeap);
+    OPPInZoomedProcessInstanceHeap otherHeap = new OPPInZoomedProcessInstanceHeap(globalHeap);
+    OPPInZoomedProcessReadySet globalReadySet = new OPPInZoomedProcessReadySet(OPPInZoomedProcessExecutionPlan.compile(opd, 0),
+        l -> localHeap.getVariable(OPPLinkExtensions.getSourceObject(l)) != null);
+    localHeap.addListener(globalReadySet);
+    globalReadySet.add(reader);
+    assertTrue(globalReadySet.removeReady().isEmpty());
+
+    otherHeap.setVariable(part, OPPObjectInstance.createFromValue(new BigDecimal(1)));
+    assertTrue(globalReadySet.removeReady().contains(reader));
+  }
+}
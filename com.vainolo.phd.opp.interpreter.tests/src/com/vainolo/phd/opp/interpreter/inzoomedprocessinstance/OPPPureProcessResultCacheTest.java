@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPListObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.model.OPPFactory;
+import com.vainolo.phd.opp.model.OPPObject;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+import com.vainolo.phd.opp.model.OPPProceduralLink;
+import com.vainolo.phd.opp.model.OPPProceduralLinkKind;
+import com.vainolo.phd.opp.model.OPPProcess;
+
+public class OPPPureProcessResultCacheTest {
+
+  private OPPInZoomedProcessExecutionPlan plan;
+  private OPPPureProcessResultCache cache;
+
+  @Before
+  public void setUp() {
+    OPPObjectProcessDiagram opd = OPPFactory.eINSTANCE.createOPPObjectProcessDiagram();
+    OPPProcess process = OPPFactory.eINSTANCE.createOPPProcess();
+    process.setDescription("@pure");
+    opd.getNodes().add(process);
+    OPPObject object = OPPFactory.eINSTANCE.createOPPObject();
+    object.setName("a");
+    opd.getNodes().add(object);
+    OPPProceduralLink link = OPPFactory.eINSTANCE.createOPPProceduralLink();
+    link.setKind(OPPProceduralLinkKind.INSTRUMENT);
+    link.setSource(object);
+    link.setTarget(process);
+    opd.getLinks().add(link);
+    plan = OPPInZoomedProcessExecutionPlan.compile(opd, 0);
+    cache = new OPPPureProcessResultCache(2);
+  }
+
+  private OPPPureProcessResultCache.Key key(OPPObjectInstance a) {
+    ArgumentHolder holder = new ArgumentHolder();
+    holder.setArgument("a", a);
+    return OPPPureProcessResultCache.createKey(plan, holder);
+  }
+
+  @Test
+  public void test_planIsPure() {
+    assertTrue(plan.isPure());
+  }
+
+  @Test
+  public void test_valuesAreComparedByValue() {
+    cache.put(key(OPPObjectInstance.createFromValue(1)), ImmutableMap.of("b", OPPObjectInstance.createFromValue("x")));
+    Map<String, OPPObjectInstance> results = cache.get(key(OPPObjectInstance.createFromValue("1.0")));
+    assertNull(results);
+    results = cache.get(key(OPPObjectInstance.createFromValue(new java.math.BigDecimal("1.00"))));
+    assertEquals("x", results.get("b").getStringValue());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(0.5, cache.getHitRate(), 0.0001);
+  }
+
+  @Test
+  public void test_collectionsAreNotCached() {
+    assertNull(key(OPPObjectInstance.createListInstance()));
+    assertNotNull(key(null));
+  }
+
+  @Test
+  public void test_resultsAreCopied() {
+    OPPListObjectInstance list = OPPObjectInstance.createRangeListInstance(1, 3);
+    cache.put(key(OPPObjectInstance.createFromValue(1)), ImmutableMap.of("b", list));
+    list.removeFirst();
+    OPPListObjectInstance cached = (OPPListObjectInstance) cache.get(key(OPPObjectInstance.createFromValue(1))).get("b");
+    assertEquals(3, cached.count());
+    cached.removeFirst();
+    assertEquals(3, ((OPPListObjectInstance) cache.get(key(OPPObjectInstance.createFromValue(1))).get("b")).count());
+  }
+
+  @Test
+  public void test_cacheIsBounded() {
+    for (int i = 0; i < 10; i++) {
+      cache.put(key(OPPObjectInstance.createFromValue(i)), ImmutableMap.of());
+    }
+    assertTrue(cache.size() <= 2);
+    assertNotNull(cache.get(key(OPPObjectInstance.createFromValue(9))));
+  }
+
+  private static class ArgumentHolder extends OPPAbstractProcessInstance {
+    @Override
+    protected void executing() {
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.json;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vainolo.phd.opp.interpreter.types.OPPComplexObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPListObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+
+public class OPPJsonReaderTest {
+
+  private OPPJsonReader reader;
+
+  @Before
+  public void setUp() {
+    reader = new OPPJsonReader();
+  }
+
+  private OPPObjectInstance read(String json) throws IOException {
+    return reader.read(new StringReader(json));
+  }
+
+  @Test
+  public void test_readValues() throws Exception {
+    OPPComplexObjectInstance object = (OPPComplexObjectInstance) read(
+        " {\"s\": \"a\\\"b\\u0041\\n\", \"i\": -12, \"d\": 0.1, \"e\": 1.5E+3, \"t\": true, \"f\": false}");
+    assertEquals("a\"bA\n", object.getPart("s").getStringValue());
+    assertEquals(OPPObjectInstance.createFromValue(-12), object.getPart("i"));
+    assertEquals(new BigDecimal("0.1"), object.getPart("d").getNumericalValue());
+    assertEquals(OPPObjectInstance.createFromValue(1500), object.getPart("e"));
+    assertEquals("yes", object.getPart("t").getStringValue());
+    assertEquals("no", object.getPart("f").getStringValue());
+  }
+
+  @Test
+  public void test_readNestedCollections() throws Exception {
+    OPPListObjectInstance list = (OPPListObjectInstance) read("[1, [], {}, {\"a\": [\"x\", {\"b\": 2}]}]");
+    assertEquals(4, list.count());
+    assertEquals(0, ((OPPListObjectInstance) list.get(2)).count());
+    assertEquals(0, ((OPPComplexObjectInstance) list.get(3)).count());
+    OPPListObjectInstance inner = (OPPListObjectInstance) ((OPPComplexObjectInstance) list.get(4)).getPart("a");
+    assertEquals("x", inner.get(1).getStringValue());
+    assertEquals(OPPObjectInstance.createFromValue(2), ((OPPComplexObjectInstance) inner.get(2)).getPart("b"));
+  }
+
+  @Test
+  public void test_invalidDocuments() throws Exception {
+    String[] invalid = { "", "{", "[1,]", "{\"a\" 1}", "{\"a\":1,}", "[01]", "[1.]", "[-]", "\"abc", "[tru]", "[1] 2",
+        "[null]" };
+    for (String json : invalid) {
+      try {
+        read(json);
+        fail("Parsed invalid document " + json);
+      } catch (OPPJsonParseException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void test_readLargeDocumentInChunks() throws Exception {
+    final int size = 100000;
+    Reader generator = new Reader() {
+      private final String element = "{\"id\":0,\"name\":\"element\"},";
+      private long position = -1;
+      private final long end = (long) size * element.length();
+
+      @Override
+      public int read(char[] buffer, int offset, int length) {
+        if (position > end) {
+          return -1;
+        }
+        int i = 0;
+        for (; i < length && position <= end; i++, position++) {
+          if (position == -1) {
+            buffer[offset + i] = '[';
+          } else if (position == end - 1) {
+            buffer[offset + i] = ']';
+          } else if (position < end) {
+            buffer[offset + i] = element.charAt((int) (position % element.length()));
+          } else {
+            buffer[offset + i] = ' ';
+          }
+        }
+        return i;
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    OPPListObjectInstance list = (OPPListObjectInstance) reader.read(generator);
+    assertEquals(size, list.count());
+    assertEquals("element", ((OPPComplexObjectInstance) list.getLast()).getPart("name").getStringValue());
+  }
+
+  @Test
+  public void test_writeAndReadBack() throws Exception {
+    OPPComplexObjectInstance object = OPPObjectInstance.createCompositeInstance();
+    object.setPart("text", OPPObjectInstance.createFromValue("line\n\"quoted\"\u0001"));
+    object.setPart("precise", OPPObjectInstance.createFromValue(new BigDecimal("0.12345678901234567890123")));
+    OPPListObjectInstance list = OPPObjectInstance.createRangeListInstance(1, 3);
+    object.setPart("list", list);
+
+    StringBuilder json = new StringBuilder();
+    new OPPJsonWriter().write(object, json);
+    OPPComplexObjectInstance copy = (OPPComplexObjectInstance) read(json.toString());
+    assertEquals(object.getPart("text"), copy.getPart("text"));
+    assertEquals(object.getPart("precise"), copy.getPart("precise"));
+    assertEquals("[1,2,3]", copy.getPart("list").toString());
+  }
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.json;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.eclipsesource.json.JsonValue;
+import com.vainolo.phd.opp.interpreter.types.OPPComplexObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPListObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+
+public class OPPJsonWriterTest {
+
+  private OPPJsonWriter writer;
+
+  @Before
+  public void setUp() {
+    writer = new OPPJsonWriter();
+  }
+
+  @Test
+  public void test_writeLists() {
+    OPPListObjectInstance list = OPPObjectInstance.createListInstance();
+    list.addLast(OPPObjectInstance.createFromValue(1));
+    list.addLast(OPPObjectInstance.createFromValue("two"));
+    list.addLast(OPPObjectInstance.createListInstance());
+    assertEquals("[1,\"two\",[]]", writer.toJson(list));
+
+    JsonValue value = writer.write(list);
+    assertTrue(value.isArray());
+    assertEquals(3, value.asArray().size());
+  }
+
+  @Test
+  public void test_writeKeepsPrecision() {
+    OPPComplexObjectInstance object = OPPObjectInstance.createCompositeInstance();
+    object.setPart("big", OPPObjectInstance.createFromValue(new BigDecimal("12345678901234567890.000000000001")));
+    assertEquals("{\"big\":12345678901234567890.000000000001}", writer.toJson(object));
+    assertEquals(writer.toJson(object), object.getStringValue());
+    assertEquals("12345678901234567890.000000000001", writer.write(object).asObject().get("big").toString());
+  }
+
+  @Test
+  public void test_writeEscapedStrings() {
+    assertEquals("\"a\\\"b\\\\c\\nd\\u0001\"", writer.toJson(OPPObjectInstance.createFromValue("a\"b\\c\nd\u0001")));
+  }
+
+  @Test
+  public void test_writeToOutputStream() throws Exception {
+    OPPComplexObjectInstance object = OPPObjectInstance.createCompositeInstance();
+    object.setPart("name", OPPObjectInstance.createFromValue("\u05e9\u05dc\u05d5\u05dd"));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.write(object, out);
+    assertEquals("{\"name\":\"\u05e9\u05dc\u05d5\u05dd\"}", new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+}
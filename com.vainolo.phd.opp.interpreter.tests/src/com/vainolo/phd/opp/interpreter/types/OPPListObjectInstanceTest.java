@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.types;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class OPPListObjectInstanceTest {
+
+  private OPPListObjectInstance list;
+
+  @Before
+  public void setUp() {
+    list = OPPObjectInstance.createListInstance();
+  }
+
+  private static OPPObjectInstance value(long value) {
+    return OPPObjectInstance.createFromValue(value);
+  }
+
+  @Test
+  public void test_operationsAtBothEnds() {
+    list.addLast(value(2));
+    list.addFirst(value(1));
+    list.addLast(value(3));
+    assertEquals(3, list.count());
+    assertEquals(value(1), list.getFirst());
+    assertEquals(value(3), list.getLast());
+    assertEquals(value(2), list.get(2));
+    assertEquals(value(1), list.removeFirst());
+    assertEquals(value(3), list.removeLast());
+    assertEquals(value(2), list.removeFirst());
+    assertNull(list.removeFirst());
+    assertNull(list.removeLast());
+  }
+
+  @Test
+  public void test_addInsertsAtIndex() {
+    list.addLast(value(1));
+    list.addLast(value(3));
+    assertTrue(list.add(2, value(2)));
+    assertFalse(list.add(0, value(0)));
+    assertFalse(list.add(4, value(4)));
+    assertEquals("[1,2,3]", list.toString());
+  }
+
+  @Test
+  public void test_behavesLikeAListUnderRandomOperations() {
+    List<OPPObjectInstance> expected = Lists.newArrayList();
+    Random random = new Random(1);
+    for (int i = 0; i < 10000; i++) {
+      int size = expected.size();
+      switch (random.nextInt(6)) {
+      case 0:
+        list.addFirst(value(i));
+        expected.add(0, value(i));
+        break;
+      case 1:
+        list.addLast(value(i));
+        expected.add(value(i));
+        break;
+      case 2:
+        assertEquals(size == 0 ? null : expected.remove(0), list.removeFirst());
+        break;
+      case 3:
+        assertEquals(size == 0 ? null : expected.remove(size - 1), list.removeLast());
+        break;
+      case 4:
+        if (size > 0) {
+          int index = random.nextInt(size) + 1;
+          assertTrue(list.add(index, value(i)));
+          expected.add(index - 1, value(i));
+        }
+        break;
+      case 5:
+        if (size > 0) {
+          int index = random.nextInt(size) + 1;
+          assertEquals(expected.remove(index - 1), list.remove(index));
+        }
+        break;
+      }
+      assertEquals(expected.size(), list.count());
+    }
+    for (int i = 1; i <= list.count(); i++) {
+      assertEquals(expected.get(i - 1), list.get(i));
+    }
+  }
+
+  @Test
+  public void test_rangeList() {
+    OPPListObjectInstance range = OPPObjectInstance.createRangeListInstance(1, 1000000);
+    assertEquals(1000000, range.count());
+    assertEquals(value(1), range.getFirst());
+    assertEquals(value(1000000), range.getLast());
+    assertEquals(value(500), range.get(500));
+    assertNull(range.get(1000001));
+    assertEquals("[3,2,1]", OPPObjectInstance.createRangeListInstance(3, 1).toString());
+  }
+
+  @Test
+  public void test_rangeListShrinksWhenRemovingAtTheEnds() {
+    OPPListObjectInstance range = OPPObjectInstance.createRangeListInstance(5, 1);
+    OPPListObjectInstance copy = (OPPListObjectInstance) OPPObjectInstance.createFromExistingInstance(range);
+    assertEquals(value(5), range.removeFirst());
+    assertEquals(value(1), range.removeLast());
+    assertEquals("[4,3,2]", range.toString());
+    assertEquals("[5,4,3,2,1]", copy.toString());
+  }
+
+  @Test
+  public void test_rangeListIsCreatedWhenChanged() {
+    OPPListObjectInstance range = OPPObjectInstance.createRangeListInstance(1, 3);
+    OPPListObjectInstance copy = (OPPListObjectInstance) OPPObjectInstance.createFromExistingInstance(range);
+    assertTrue(range.add(2, value(7)));
+    range.addLast(value(4));
+    assertEquals(value(2), range.remove(3));
+    assertEquals("[1,7,3,4]", range.toString());
+    assertEquals("[1,2,3]", copy.toString());
+  }
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.types;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+public class OPPNumberObjectInstanceTest {
+
+  @Test
+  public void test_integralValuesAreStoredAsLong() {
+    assertTrue(OPPObjectInstance.createFromValue(new BigDecimal(5)).isLong());
+    assertTrue(OPPNumberObjectInstance.parse(" 42 ").isLong());
+    assertFalse(OPPObjectInstance.createFromValue(new BigDecimal("5.0")).isLong());
+    assertEquals("5.0", OPPObjectInstance.createFromValue(new BigDecimal("5.0")).getStringValue());
+  }
+
+  @Test
+  public void test_arithmeticStaysInLongs() {
+    OPPNumberObjectInstance a = OPPObjectInstance.createFromValue(6);
+    OPPNumberObjectInstance b = OPPObjectInstance.createFromValue(3);
+    assertEquals(9, OPPNumberObjectInstance.add(a, b).getLongValue());
+    assertEquals(3, OPPNumberObjectInstance.subtract(a, b).getLongValue());
+    assertEquals(18, OPPNumberObjectInstance.multiply(a, b).getLongValue());
+    assertEquals(2, OPPNumberObjectInstance.divide(a, b).getLongValue());
+    assertEquals(216, OPPNumberObjectInstance.pow(a, b).getLongValue());
+    assertEquals(-6, OPPNumberObjectInstance.negate(a).getLongValue());
+  }
+
+  @Test
+  public void test_arithmeticPromotesToBigDecimal() {
+    OPPNumberObjectInstance max = OPPObjectInstance.createFromValue(Long.MAX_VALUE);
+    OPPNumberObjectInstance one = OPPObjectInstance.createFromValue(1);
+    OPPNumberObjectInstance sum = OPPNumberObjectInstance.add(max, one);
+    assertFalse(sum.isLong());
+    assertEquals(BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE), sum.getNumericalValue());
+    assertFalse(OPPNumberObjectInstance.multiply(max, max).isLong());
+    assertEquals(new BigDecimal("0.5"),
+        OPPNumberObjectInstance.divide(one, OPPObjectInstance.createFromValue(2)).getNumericalValue());
+  }
+
+  @Test
+  public void test_equalsAndHashCodeIgnoreRepresentation() {
+    OPPNumberObjectInstance a = OPPObjectInstance.createFromValue(5);
+    OPPNumberObjectInstance b = OPPObjectInstance.createFromValue(new BigDecimal("5.00"));
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+    assertNotEquals(a, OPPObjectInstance.createFromValue(6));
+  }
+}
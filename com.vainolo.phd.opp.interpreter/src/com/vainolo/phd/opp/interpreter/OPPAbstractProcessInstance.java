@@ -27,6 +27,7 @@ public abstract class OPPAbstractProcessInstance implements OPPProcessInstance {
 
   protected final OPPProcessInstanceHeap heap = new OPPProcessInstanceHeap();
   private String name;
+  private OPPExecutionSession session;
   private OPPProcessExecutionResult result;
 
   protected OPPProcessInstanceHeap getHeap() {
@@ -49,6 +50,16 @@ public abstract class OPPAbstractProcessInstance implements OPPProcessInstance {
     this.name = name;
   }
 
+  @Override
+  public void setSession(OPPExecutionSession session) {
+    this.session = session;
+  }
+
+  @Override
+  public OPPExecutionSession getSession() {
+    return session;
+  }
+
   /**
    * {@inheritDoc}
    * 
@@ -139,6 +150,9 @@ public abstract class OPPAbstractProcessInstance implements OPPProcessInstance {
       preExecution();
       executing();
       postExecution();
+      if (session != null) {
+        session.processExecuted();
+      }
     } catch (Exception e) {
       logSevere("Exception while executing process {0}.", getName());
       logSevere("Exception: {0}", e);
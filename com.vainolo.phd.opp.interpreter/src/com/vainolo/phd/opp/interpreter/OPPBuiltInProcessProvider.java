@@ -0,0 +1,22 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+/**
+ * Service that adds built-in processes to the {@link OPPBuiltInProcessRegistry}. Providers are found using
+ * {@link java.util.ServiceLoader}, so a provider is added by listing its class name in a
+ * <code>META-INF/services/com.vainolo.phd.opp.interpreter.OPPBuiltInProcessProvider</code> file. Providers must have a
+ * public no-argument constructor.
+ */
+public interface OPPBuiltInProcessProvider {
+
+  /**
+   * Register the built-in processes of this provider. This is called while the registry is being created, so the
+   * provider must only use the given registry.
+   */
+  void registerBuiltInProcesses(OPPBuiltInProcessRegistry registry);
+}
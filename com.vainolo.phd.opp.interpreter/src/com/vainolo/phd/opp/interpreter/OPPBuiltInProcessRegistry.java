@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.vainolo.phd.opp.interpreter.builtin.OPPCoreBuiltInProcessProvider;
+
+/**
+ * Registry of the built-in processes, indexed by their case-insensitive names. The registry contains the built-in
+ * processes of the interpreter and those of all the {@link OPPBuiltInProcessProvider}s found by the
+ * {@link ServiceLoader}.
+ * <p>
+ * The result of looking up a process name, including names that are not built-in processes, is cached by the exact
+ * name, so repeated lookups of the same name do not normalize the name again.
+ */
+public enum OPPBuiltInProcessRegistry {
+  INSTANCE;
+
+  private static final Supplier<OPPProcessInstance> NOT_BUILT_IN = () -> null;
+
+  private final Map<String, Supplier<? extends OPPProcessInstance>> builtIns = new ConcurrentHashMap<>();
+  private final Map<String, Supplier<? extends OPPProcessInstance>> lookups = new ConcurrentHashMap<>();
+
+  private OPPBuiltInProcessRegistry() {
+    new OPPCoreBuiltInProcessProvider().registerBuiltInProcesses(this);
+    try {
+      for (OPPBuiltInProcessProvider provider : ServiceLoader.load(OPPBuiltInProcessProvider.class,
+          OPPBuiltInProcessRegistry.class.getClassLoader())) {
+        logFine("Registering built-in processes of {0}.", provider.getClass().getName());
+        provider.registerBuiltInProcesses(this);
+      }
+    } catch (ServiceConfigurationError e) {
+      logSevere("Could not load built-in process providers: {0}", e.getMessage());
+    }
+  }
+
+  /**
+   * Register a built-in process. A name that is already registered is replaced.
+   *
+   * @param supplier
+   *          creates a new instance of the process each time it is called.
+   * @param names
+   *          the names of the process, which are compared ignoring case.
+   */
+  public void register(Supplier<? extends OPPProcessInstance> supplier, String... names) {
+    for (String name : names) {
+      if (builtIns.put(normalize(name), supplier) != null) {
+        logFine("Built-in process {0} was replaced.", name);
+      }
+    }
+    lookups.clear();
+  }
+
+  /**
+   * Remove built-in processes from the registry. Names that are not registered are ignored.
+   *
+   * @param names
+   *          the names of the processes, which are compared ignoring case.
+   */
+  public void unregister(String... names) {
+    for (String name : names) {
+      builtIns.remove(normalize(name));
+    }
+    lookups.clear();
+  }
+
+  /**
+   * Create a new instance of a built-in process.
+   *
+   * @param name
+   *          the name of the process.
+   * @return a new instance, or <code>null</code> if there is no built-in process with this name.
+   */
+  public OPPProcessInstance createInstance(String name) {
+    if (name == null)
+      return null;
+    return lookup(name).get();
+  }
+
+  public boolean isBuiltIn(String name) {
+    return name != null && lookup(name) != NOT_BUILT_IN;
+  }
+
+  /**
+   * @return the normalized names of all the registered built-in processes.
+   */
+  public Set<String> getNames() {
+    return Collections.unmodifiableSet(builtIns.keySet());
+  }
+
+  private Supplier<? extends OPPProcessInstance> lookup(String name) {
+    Supplier<? extends OPPProcessInstance> supplier = lookups.get(name);
+    if (supplier == null) {
+      supplier = builtIns.getOrDefault(normalize(name), NOT_BUILT_IN);
+      lookups.put(name, supplier);
+    }
+    return supplier;
+  }
+
+  private static String normalize(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+
+/**
+ * Source of the diagrams executed by the interpreter and of the files read and written by the file built-in processes.
+ * Diagrams are found by name, so that a process named "foo" is executed by loading diagram "foo".
+ */
+public interface OPPDiagramRepository {
+
+  /**
+   * Load a diagram.
+   * 
+   * @param opdName
+   *          the name of the diagram, without extension.
+   * @return the loaded diagram, or <code>null</code> if it does not exist or could not be loaded. The diagram may be
+   *         shared between executions and must not be modified.
+   */
+  OPPObjectProcessDiagram loadDiagram(String opdName);
+
+  /**
+   * Resolve a file name used by a diagram to a path in the local file system.
+   * 
+   * @param fileName
+   *          a file name relative to the repository.
+   * @return the local file system path of the file.
+   */
+  String getFilePath(String fileName);
+}
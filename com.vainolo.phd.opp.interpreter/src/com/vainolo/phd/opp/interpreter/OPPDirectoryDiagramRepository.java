@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static com.google.common.base.Preconditions.*;
+import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+
+import java.io.File;
+
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+import com.vainolo.phd.opp.utilities.OPPFileCache;
+
+/**
+ * Repository of the diagrams stored in a directory of the local file system. Diagrams are loaded through the
+ * {@link OPPFileCache}, so they are parsed only once per JVM as long as the files are not modified. Relative file names
+ * are resolved against the directory.
+ */
+public class OPPDirectoryDiagramRepository implements OPPDiagramRepository {
+
+  private final File directory;
+
+  public OPPDirectoryDiagramRepository(File directory) {
+    this.directory = checkNotNull(directory).getAbsoluteFile();
+  }
+
+  @Override
+  public OPPObjectProcessDiagram loadDiagram(String opdName) {
+    File file = new File(directory, opdName + ".opp");
+    if (!file.isFile()) {
+      logSevere("OPD file {0} does not exist.", file);
+      return null;
+    }
+    return OPPFileCache.INSTANCE.get(file.getPath(), file.lastModified());
+  }
+
+  @Override
+  public String getFilePath(String fileName) {
+    File file = new File(fileName);
+    if (!file.isAbsolute()) {
+      file = new File(directory, fileName);
+    }
+    return file.getPath();
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+}
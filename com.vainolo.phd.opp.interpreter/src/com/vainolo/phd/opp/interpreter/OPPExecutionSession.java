@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static com.google.common.base.Preconditions.*;
+import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.vainolo.phd.opp.interpreter.OPPScheduler.OPPSchedulerKind;
+import com.vainolo.phd.opp.interpreter.inzoomedprocessinstance.OPPPureProcessResultCache;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagramKind;
+import com.vainolo.phd.opp.utilities.OPPFileCache;
+import com.vainolo.phd.opp.utilities.OPPLogger;
+
+/**
+ * State of a single execution of a diagram: where diagrams are found, the scheduler that runs the processes, the global
+ * heap, the files written by the processes, the results of pure processes, the stop flag and execution statistics. All
+ * the process instances of an execution share the same session, and different sessions are independent of each other,
+ * so many diagrams can be executed concurrently in the same JVM.
+ * 
+ * A session executes one diagram and is closed when the execution ends. Sessions used to execute instances directly
+ * must be closed by the caller.
+ */
+public class OPPExecutionSession implements AutoCloseable {
+
+  private final OPPDiagramRepository repository;
+  private final OPPScheduler scheduler;
+  private final OPPGlobalHeap globalHeap = new OPPGlobalHeap();
+  private final OPPOutputFilePool outputFiles = new OPPOutputFilePool();
+  private final OPPPureProcessResultCache pureProcessResults = new OPPPureProcessResultCache();
+  private final AtomicBoolean started = new AtomicBoolean();
+  private final AtomicLong executedProcesses = new AtomicLong();
+  private volatile boolean stopped = false;
+  private volatile long startTime = 0;
+  private volatile long endTime = 0;
+
+  /**
+   * Create a new session that uses platform threads, one for each available processor.
+   */
+  public OPPExecutionSession(OPPDiagramRepository repository) {
+    this(repository, OPPSchedulerKind.PLATFORM, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Create a new session.
+   * 
+   * @param repository
+   *          the repository where the executed diagrams are found.
+   * @param schedulerKind
+   *          the kind of threads where the processes of this session are executed.
+   * @param parallelism
+   *          the number of platform threads that execute processes concurrently.
+   */
+  public OPPExecutionSession(OPPDiagramRepository repository, OPPSchedulerKind schedulerKind, int parallelism) {
+    this.repository = checkNotNull(repository);
+    this.scheduler = OPPScheduler.create(schedulerKind, parallelism);
+  }
+
+  /**
+   * Execute a diagram found in the repository of this session and close the session.
+   * 
+   * @param opdName
+   *          the name of the diagram.
+   * @return the result of the execution, or <code>null</code> if the diagram could not be executed.
+   * @throws IllegalStateException
+   *           if the session already executed a diagram.
+   */
+  public OPPProcessExecutionResult execute(String opdName) {
+    checkState(started.compareAndSet(false, true), "A session can only execute one diagram.");
+    startTime = System.nanoTime();
+    try {
+      logInfo("Interpreting OPD {0}.", opdName);
+      OPPObjectProcessDiagram opd = repository.loadDiagram(opdName);
+      if (opd == null) {
+        logSevere("OPD {0} could not be loaded.", opdName);
+        return null;
+      }
+      if (opd.getKind() != OPPObjectProcessDiagramKind.COMPOUND) {
+        logInfo("Process is not compund, returning.");
+        return null;
+      }
+
+      OPPProcessInstance instance = OPPProcessInstanceFactory.createExecutableInstance(opd, this);
+      OPPProcessExecutionResult result = null;
+      try {
+        Future<OPPProcessExecutionResult> future = scheduler.submit(instance);
+        result = future.get();
+      } catch (CancellationException e) {
+        logInfo("Execution of {0} was stopped.", opdName);
+      } catch (Exception e) {
+        logSevere("Unexpected exception: " + e.getMessage());
+      }
+      logInfo("Finished interpreting {0}.", opdName);
+      logFine("OPD file cache: {0} hits, {1} misses.", OPPFileCache.INSTANCE.getHitCount(), OPPFileCache.INSTANCE.getMissCount());
+      logFine("Pure process results: {0} hits, {1} misses.", pureProcessResults.getHitCount(), pureProcessResults.getMissCount());
+      return result;
+    } finally {
+      close();
+      OPPLogger.flush();
+    }
+  }
+
+  /**
+   * Stop the execution of all the processes of this session. Text buffered in the output files is written.
+   */
+  public void stop() {
+    logInfo("Stopping execution");
+    stopped = true;
+    scheduler.shutdownNow();
+    outputFiles.flushAll();
+    logInfo("Stopped execution");
+  }
+
+  public boolean isStopped() {
+    return stopped;
+  }
+
+  /**
+   * Release the threads of this session and close its output files. Processes that are already executing are allowed
+   * to finish.
+   */
+  @Override
+  public void close() {
+    if (endTime == 0) {
+      endTime = System.nanoTime();
+    }
+    scheduler.shutdown();
+    outputFiles.close();
+  }
+
+  public OPPDiagramRepository getDiagramRepository() {
+    return repository;
+  }
+
+  public OPPScheduler getScheduler() {
+    return scheduler;
+  }
+
+  public OPPGlobalHeap getGlobalHeap() {
+    return globalHeap;
+  }
+
+  public OPPOutputFilePool getOutputFiles() {
+    return outputFiles;
+  }
+
+  /**
+   * @return the cached results of the pure processes executed in this session.
+   */
+  public OPPPureProcessResultCache getPureProcessResults() {
+    return pureProcessResults;
+  }
+
+  void processExecuted() {
+    executedProcesses.incrementAndGet();
+  }
+
+  /**
+   * @return the number of process instances (including in-zoomed instances) executed in this session.
+   */
+  public long getExecutedProcessCount() {
+    return executedProcesses.get();
+  }
+
+  /**
+   * @return the time that the diagram has been executing, or the total time of the execution if it ended.
+   */
+  public long getExecutionTime(TimeUnit unit) {
+    if (startTime == 0)
+      return 0;
+    long end = endTime == 0 ? System.nanoTime() : endTime;
+    return unit.convert(end - startTime, TimeUnit.NANOSECONDS);
+  }
+}
@@ -6,20 +6,53 @@
  *******************************************************************************/
 package com.vainolo.phd.opp.interpreter;
 
-import java.util.Map;
+import static com.google.common.base.Preconditions.*;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
 
-import com.google.common.collect.Maps;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 
+/**
+ * Heap of the global objects of an execution session, shared by all the process instances of the session, which may
+ * be executing concurrently. The heap is backed by a {@link ConcurrentHashMap}, so accessing different variables does
+ * not block, and it provides atomic compare-and-set and compute operations for processes that update the same
+ * variable.
+ * 
+ * Listeners can be registered for a single variable, and are called by the thread that changed the variable after the
+ * change was made. Listeners must not block.
+ */
 public class OPPGlobalHeap extends OPPProcessInstanceHeap {
-  private Map<String, OPPObjectInstance> variables;
+
+  /**
+   * Listener of changes to a global variable.
+   */
+  public interface OPPGlobalHeapListener {
+    /**
+     * @param name
+     *          the name of the variable.
+     * @param oldValue
+     *          the value before the change, or <code>null</code> if the variable had no value.
+     * @param newValue
+     *          the value after the change, or <code>null</code> if the variable was cleared.
+     */
+    void variableChanged(String name, OPPObjectInstance oldValue, OPPObjectInstance newValue);
+  }
+
+  private final ConcurrentMap<String, OPPObjectInstance> variables = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, List<OPPGlobalHeapListener>> listeners = new ConcurrentHashMap<>();
 
   public OPPGlobalHeap() {
-    variables = Maps.newHashMap();
   }
 
   public void setVariable(String name, OPPObjectInstance value) {
-    variables.put(name, value);
+    checkArgument(value != null, "Value cannot be null");
+    OPPObjectInstance oldValue = variables.put(name, value);
+    fireVariableChanged(name, oldValue, value);
   }
 
   public OPPObjectInstance getVariable(String name) {
@@ -27,7 +60,83 @@ public class OPPGlobalHeap extends OPPProcessInstanceHeap {
   }
 
   public void clearVariable(String name) {
-    variables.remove(name);
+    OPPObjectInstance oldValue = variables.remove(name);
+    if (oldValue != null) {
+      fireVariableChanged(name, oldValue, null);
+    }
   }
 
+  /**
+   * Atomically set the value of a variable if its current value is equal to the expected value.
+   * 
+   * @param name
+   *          the name of the variable.
+   * @param expectedValue
+   *          the expected current value, or <code>null</code> if the variable is expected to have no value.
+   * @param newValue
+   *          the new value, or <code>null</code> to clear the variable.
+   * @return <code>true</code> if the value was changed.
+   */
+  public boolean compareAndSetVariable(String name, OPPObjectInstance expectedValue, OPPObjectInstance newValue) {
+    boolean changed;
+    if (expectedValue == null) {
+      changed = newValue == null ? !variables.containsKey(name) : variables.putIfAbsent(name, newValue) == null;
+    } else if (newValue == null) {
+      changed = variables.remove(name, expectedValue);
+    } else {
+      changed = variables.replace(name, expectedValue, newValue);
+    }
+    if (changed && !Objects.equals(expectedValue, newValue)) {
+      fireVariableChanged(name, expectedValue, newValue);
+    }
+    return changed;
+  }
+
+  /**
+   * Atomically calculate a new value for a variable. Other updates of the same variable wait until the calculation
+   * ends, so the function should be short and must not access other global variables.
+   * 
+   * @param name
+   *          the name of the variable.
+   * @param function
+   *          calculates the new value from the variable name and its current value (<code>null</code> if it has no
+   *          value). Returning <code>null</code> clears the variable.
+   * @return the new value of the variable.
+   */
+  public OPPObjectInstance computeVariable(String name, BiFunction<String, OPPObjectInstance, OPPObjectInstance> function) {
+    OPPObjectInstance[] oldValue = new OPPObjectInstance[1];
+    OPPObjectInstance newValue = variables.compute(name, (key, value) -> {
+      oldValue[0] = value;
+      return function.apply(key, value);
+    });
+    if (oldValue[0] != newValue) {
+      fireVariableChanged(name, oldValue[0], newValue);
+    }
+    return newValue;
+  }
+
+  /**
+   * Add a listener to the changes of a variable.
+   */
+  public void addListener(String name, OPPGlobalHeapListener listener) {
+    listeners.computeIfAbsent(name, key -> new CopyOnWriteArrayList<>()).add(checkNotNull(listener));
+  }
+
+  public void removeListener(String name, OPPGlobalHeapListener listener) {
+    List<OPPGlobalHeapListener> variableListeners = listeners.get(name);
+    if (variableListeners != null) {
+      variableListeners.remove(listener);
+    }
+  }
+
+  private void fireVariableChanged(String name, OPPObjectInstance oldValue, OPPObjectInstance newValue) {
+    if (listeners.isEmpty())
+      return;
+    List<OPPGlobalHeapListener> variableListeners = listeners.get(name);
+    if (variableListeners == null)
+      return;
+    for (OPPGlobalHeapListener listener : variableListeners) {
+      listener.variableChanged(name, oldValue, newValue);
+    }
+  }
 }
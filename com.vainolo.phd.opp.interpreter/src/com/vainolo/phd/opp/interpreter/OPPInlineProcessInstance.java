@@ -0,0 +1,15 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+/**
+ * Marker for process instances that can be executed directly on the thread of the in-zoomed process that invokes
+ * them, instead of being submitted to the {@link OPPScheduler}. Only processes that never block and finish in a short,
+ * bounded time (like arithmetic operations and comparisons) should implement this interface.
+ */
+public interface OPPInlineProcessInstance extends OPPProcessInstance {
+}
@@ -6,25 +6,21 @@
  *******************************************************************************/
 package com.vainolo.phd.opp.interpreter;
 
-import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+import static com.google.common.base.Preconditions.*;
 
-import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-import java.util.logging.Level;
+import java.util.Set;
 
 import org.eclipse.core.resources.IContainer;
-import org.eclipse.core.runtime.Path;
 
-import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+import com.google.common.collect.Sets;
+import com.vainolo.phd.opp.interpreter.OPPScheduler.OPPSchedulerKind;
 import com.vainolo.phd.opp.model.OPPObjectProcessDiagramKind;
-import com.vainolo.phd.opp.utilities.OPPFileUtils;
 import com.vainolo.phd.opp.utilities.OPPLogTarget;
-import com.vainolo.phd.opp.utilities.OPPLogger;
 
 /**
+ * Entry point for executing diagrams. Every execution runs in its own {@link OPPExecutionSession}, so the interpreter
+ * can execute many diagrams concurrently. The interpreter only holds the settings used to create new sessions and the
+ * sessions that are currently running, so that they can be stopped.
  * 
  * @author Arieh 'Vainolo' Bibliowicz
  * @created 5 Jul 2012
@@ -33,14 +29,10 @@ import com.vainolo.phd.opp.utilities.OPPLogger;
 public enum OPPInterpreter {
   INSTANCE;
 
-  public static IContainer container = null;
-
-  private OPPProcessInstance instance;
-  private ExecutorService executor;
-  private ExecutorCompletionService<OPPProcessExecutionResult> completionService;
-  private OPPGlobalHeap globalHeap;
+  private final Set<OPPExecutionSession> runningSessions = Sets.newConcurrentHashSet();
+  private volatile OPPSchedulerKind schedulerKind = OPPSchedulerKind.PLATFORM;
+  private volatile int parallelism = Runtime.getRuntime().availableProcessors();
   private OPPLogTarget logViewPart;
-  private boolean stopped;
 
   private OPPInterpreter() {
   }
@@ -53,62 +45,103 @@ public enum OPPInterpreter {
    * @param container
    */
   public void interpret(String opdName, final IContainer _container) {
-    stopped = false;
-    executor = Executors.newSingleThreadExecutor(); // Executors.newCachedThreadPool();
-    completionService = new ExecutorCompletionService<>(executor);
-    globalHeap = new OPPGlobalHeap();
+    interpret(opdName, _container, schedulerKind);
+  }
 
-    OPPLogger.setLevel(Level.FINE);
-    try {
+  /**
+   * Execute an Object Process Diagram (OPD) stored in a workspace container. The log view is cleared before the run
+   * starts, so it only shows the log of this run.
+   * 
+   * @see #interpret(String, OPPDiagramRepository, OPPSchedulerKind)
+   */
+  public void interpret(String opdName, final IContainer _container, OPPSchedulerKind runSchedulerKind) {
+    if (logViewPart != null) {
       logViewPart.clear();
-    } catch (NullPointerException e) {
-      OPPLogger.logWarning("logViewPart is null. probably not initialized. Ignoring.");
     }
+    interpret(opdName, new OPPWorkspaceDiagramRepository(_container), runSchedulerKind);
+  }
 
-    container = _container;
-    logInfo("Interpreting OPD {0}.", opdName);
-    OPPObjectProcessDiagram opd = OPPFileUtils.loadOPPFile(OPPInterpreter.container.getFile(new Path(opdName + ".opp")).getFullPath().toString());
-    if (opd.getKind() != OPPObjectProcessDiagramKind.COMPOUND) {
-      logInfo("Process is not compund, returning.");
-      return;
-    }
+  /**
+   * Execute an Object Process Diagram (OPD) found in the given repository.
+   * 
+   * @see #interpret(String, OPPDiagramRepository, OPPSchedulerKind)
+   */
+  public OPPProcessExecutionResult interpret(String opdName, OPPDiagramRepository _repository) {
+    return interpret(opdName, _repository, schedulerKind);
+  }
 
-    instance = OPPProcessInstanceFactory.createExecutableInstance(opd);
+  /**
+   * Execute an Object Process Diagram (OPD) using the given kind of threads for this run only. Use
+   * {@link OPPSchedulerKind#VIRTUAL} for diagrams that run many concurrent blocking processes (sleeping, reading input,
+   * calling web APIs), so that each process doesn't take a platform thread.
+   * 
+   * The execution runs in a new session. This method can be called from many threads at the same time, and loaded
+   * diagrams and their execution plans are shared by all the runs.
+   * 
+   * @param opdName
+   *          the name of the diagram to execute.
+   * @param _repository
+   *          the repository where the diagram and all the diagrams it invokes are found.
+   * @param runSchedulerKind
+   *          the kind of threads where the processes of this run are executed.
+   * @return the result of the execution, or <code>null</code> if the diagram could not be executed.
+   */
+  public OPPProcessExecutionResult interpret(String opdName, OPPDiagramRepository _repository, OPPSchedulerKind runSchedulerKind) {
+    return interpret(opdName, new OPPExecutionSession(_repository, runSchedulerKind, parallelism));
+  }
 
+  /**
+   * Execute an Object Process Diagram (OPD) in the given session, which can be stopped with
+   * {@link #stopExecution()} while it is running.
+   * 
+   * @return the result of the execution, or <code>null</code> if the diagram could not be executed.
+   */
+  public OPPProcessExecutionResult interpret(String opdName, OPPExecutionSession session) {
+    runningSessions.add(session);
     try {
-      completionService.submit(instance);
-      completionService.take();
-    } catch (Exception e) {
-      logSevere("Unexpected exception: " + e.getMessage());
+      return session.execute(opdName);
+    } finally {
+      runningSessions.remove(session);
     }
-    logInfo("Finished interpreting {0}.", opdName);
   }
 
-  public Executor getExecutor() {
-    return executor;
+  /**
+   * Create a session using the scheduler settings of the interpreter.
+   */
+  public OPPExecutionSession createSession(OPPDiagramRepository repository) {
+    return new OPPExecutionSession(repository, schedulerKind, parallelism);
   }
 
-  public void stopExecution() {
-    logInfo("Stopping execution");
-    stopped = true;
-    executor.shutdownNow();
-    while (!executor.isTerminated()) {
-      try {
-        executor.awaitTermination(5, TimeUnit.SECONDS);
-      } catch (InterruptedException e) {
-        logWarning("Interrupted while waiting for all processes to finish.");
-        e.printStackTrace();
-      }
-    }
-    logInfo("Stopped execution");
+  /**
+   * Set the kind of threads used to execute processes in the following runs.
+   */
+  public void setSchedulerKind(OPPSchedulerKind schedulerKind) {
+    this.schedulerKind = checkNotNull(schedulerKind);
+  }
+
+  public OPPSchedulerKind getSchedulerKind() {
+    return schedulerKind;
+  }
+
+  /**
+   * Set the number of platform threads used to execute processes in the following runs.
+   */
+  public void setParallelism(int parallelism) {
+    checkArgument(parallelism > 0, "Parallelism must be positive.");
+    this.parallelism = parallelism;
   }
 
-  public boolean isStopped() {
-    return stopped;
+  public int getParallelism() {
+    return parallelism;
   }
 
-  public OPPGlobalHeap getGlobalHeap() {
-    return globalHeap;
+  /**
+   * Stop all the running executions.
+   */
+  public void stopExecution() {
+    for (OPPExecutionSession session : runningSessions) {
+      session.stop();
+    }
   }
 
   public void setLogView(OPPLogTarget oppExecutionLogViewPart) {
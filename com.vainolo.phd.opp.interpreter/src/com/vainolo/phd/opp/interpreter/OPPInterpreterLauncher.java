@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import com.google.common.collect.Lists;
+import com.vainolo.phd.opp.interpreter.OPPProcessExecutionResult.OPMProcessExecutionResultType;
+import com.vainolo.phd.opp.interpreter.OPPScheduler.OPPSchedulerKind;
+import com.vainolo.phd.opp.model.OPPPackage;
+import com.vainolo.phd.opp.utilities.OPPLogger;
+
+/**
+ * Command line runner that executes diagrams stored in a directory, without an Eclipse workspace:
+ * 
+ * <pre>
+ * OPPInterpreterLauncher [-virtual] [-parallelism N] [-sessions N] [-log LEVEL] [-names FILE] DIRECTORY [DIAGRAM...]
+ * </pre>
+ * 
+ * The diagrams given after the directory are executed, followed by the diagrams named in the <code>-names</code> file,
+ * one per line. The names are not read from the standard input, which belongs to the diagrams that read the console.
+ * All the diagrams are executed in the same JVM, so loaded diagrams and execution plans are reused between runs. Each
+ * run has its own execution session, and up to <code>-sessions</code> runs (default 1) are executed concurrently. The
+ * result, duration and number of executed processes of every run is written to the standard error, since the standard
+ * output belongs to the diagrams. A run that was stopped, for example because processes were left waiting for their
+ * inputs, did not finish. The exit code is 0 if all the runs finished, 1 if any run did not finish, and 2 if the
+ * arguments are wrong.
+ * 
+ * Dialogs are replaced by the standard input and output unless the <code>java.awt.headless</code> property is set to
+ * <code>false</code>.
+ */
+public class OPPInterpreterLauncher {
+
+  private static final String USAGE = "Usage: OPPInterpreterLauncher [-virtual] [-parallelism N] [-sessions N] [-log LEVEL] [-names FILE] DIRECTORY [DIAGRAM...]";
+
+  private final PrintStream err;
+
+  OPPInterpreterLauncher(PrintStream err) {
+    this.err = err;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (System.getProperty("java.awt.headless") == null) {
+      System.setProperty("java.awt.headless", "true");
+    }
+    int exitCode = new OPPInterpreterLauncher(System.err).run(args);
+    System.exit(exitCode);
+  }
+
+  /**
+   * Execute the diagrams given in the arguments.
+   * 
+   * @return the exit code of the launcher.
+   */
+  int run(String[] args) throws IOException {
+    OPPSchedulerKind schedulerKind = OPPSchedulerKind.PLATFORM;
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    int sessions = 1;
+    Level level = Level.WARNING;
+    File namesFile = null;
+    List<String> positional = Lists.newArrayList();
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+        case "-virtual":
+          schedulerKind = OPPSchedulerKind.VIRTUAL;
+          break;
+        case "-parallelism":
+          parallelism = Integer.parseInt(args[++i]);
+          break;
+        case "-sessions":
+          sessions = Integer.parseInt(args[++i]);
+          break;
+        case "-log":
+          level = Level.parse(args[++i].toUpperCase());
+          break;
+        case "-names":
+          namesFile = new File(args[++i]);
+          break;
+        default:
+          if (args[i].startsWith("-"))
+            throw new IllegalArgumentException("Unknown option " + args[i]);
+          positional.add(args[i]);
+        }
+      }
+    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+      err.println(USAGE);
+      return 2;
+    }
+    if (positional.isEmpty() || (positional.size() == 1 && namesFile == null) || parallelism <= 0 || sessions <= 0) {
+      err.println(USAGE);
+      return 2;
+    }
+    File directory = new File(positional.get(0));
+    if (!directory.isDirectory()) {
+      err.println("Not a directory: " + directory);
+      return 2;
+    }
+    List<String> opdNames = Lists.newArrayList(positional.subList(1, positional.size()));
+    if (namesFile != null) {
+      if (!namesFile.isFile()) {
+        err.println("Not a file: " + namesFile);
+        return 2;
+      }
+      for (String line : Files.readAllLines(namesFile.toPath(), StandardCharsets.UTF_8)) {
+        if (!line.trim().isEmpty()) {
+          opdNames.add(line.trim());
+        }
+      }
+    }
+
+    OPPLogger.setLevel(level);
+    OPPPackage.eINSTANCE.eClass();
+    OPPInterpreter.INSTANCE.setSchedulerKind(schedulerKind);
+    OPPInterpreter.INSTANCE.setParallelism(parallelism);
+    OPPDiagramRepository repository = new OPPDirectoryDiagramRepository(directory);
+
+    ExecutorService runner = Executors.newFixedThreadPool(sessions);
+    List<Future<Boolean>> runs = Lists.newArrayList();
+    try {
+      for (String opdName : opdNames) {
+        runs.add(runner.submit(() -> execute(repository, opdName)));
+      }
+
+      boolean allFinished = true;
+      for (Future<Boolean> run : runs) {
+        try {
+          allFinished &= run.get();
+        } catch (ExecutionException | InterruptedException e) {
+          allFinished = false;
+        }
+      }
+      return allFinished ? 0 : 1;
+    } finally {
+      runner.shutdown();
+    }
+  }
+
+  private boolean execute(OPPDiagramRepository repository, String opdName) {
+    OPPExecutionSession session = OPPInterpreter.INSTANCE.createSession(repository);
+    OPPProcessExecutionResult result = OPPInterpreter.INSTANCE.interpret(opdName, session);
+    OPMProcessExecutionResultType resultType = result == null || session.isStopped() ? OPMProcessExecutionResultType.UNABLE_TO_FINISH : result.getResultType();
+    err.println(resultType + " " + opdName + " " + session.getExecutionTime(TimeUnit.MILLISECONDS) + " ms " + session.getExecutedProcessCount() + " processes");
+    return resultType == OPMProcessExecutionResultType.FINISHED;
+  }
+}
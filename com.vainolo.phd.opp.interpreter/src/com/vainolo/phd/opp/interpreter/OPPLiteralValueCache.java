@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.model.OPPObject;
+
+/**
+ * Cache of the literal values of {@link OPPObject}s. The literal of an object is its initial value, or its name if it
+ * has no initial value. Literals are parsed once and cached by the identity of the {@link OPPObject}, including objects
+ * whose literal has no value, and are parsed again if the literal of the object changes. Objects are weakly referenced,
+ * so values of unloaded diagrams are collected.
+ * <p>
+ * The cached instances are never handed out: callers get a copy, which for collections shares the elements of the
+ * cached instance until the copy is changed.
+ */
+public enum OPPLiteralValueCache {
+  INSTANCE;
+
+  private final Cache<OPPObject, LiteralValue> values = CacheBuilder.newBuilder().weakKeys().build();
+  private final OPPObjectInstanceValueAnalyzer valueAnalyzer = new OPPObjectInstanceValueAnalyzer();
+
+  /**
+   * Get the value of the literal of an {@link OPPObject}, parsing it if needed.
+   *
+   * @param object
+   *          the object whose literal is calculated.
+   * @return a copy of the literal value of the object, or <code>null</code> if the object is not a literal.
+   */
+  public OPPObjectInstance getLiteralValue(OPPObject object) {
+    String literal = getLiteral(object);
+    LiteralValue value = values.getIfPresent(object);
+    if (value == null || !value.literal.equals(literal)) {
+      value = new LiteralValue(literal, valueAnalyzer.calculateOPMObjectValue(literal));
+      logFinest("Cached literal value of {0}.", literal);
+      values.put(object, value);
+    }
+    return value.instance == null ? null : OPPObjectInstance.createFromExistingInstance(value.instance);
+  }
+
+  public void clear() {
+    values.invalidateAll();
+  }
+
+  private String getLiteral(OPPObject object) {
+    String initialValue = object.getInitialValue();
+    if (initialValue != null && !initialValue.equals("")) {
+      return initialValue;
+    }
+    return object.getName() == null ? "" : object.getName();
+  }
+
+  private static final class LiteralValue {
+    private final String literal;
+    private final OPPObjectInstance instance;
+
+    LiteralValue(String literal, OPPObjectInstance instance) {
+      this.literal = literal;
+      this.instance = instance;
+    }
+  }
+}
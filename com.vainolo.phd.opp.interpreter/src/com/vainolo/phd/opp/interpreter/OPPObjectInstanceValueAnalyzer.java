@@ -18,6 +18,7 @@ import com.eclipsesource.json.JsonValue;
 import com.google.common.collect.Lists;
 import com.vainolo.phd.opp.interpreter.json.OPPJsonReader;
 import com.vainolo.phd.opp.interpreter.types.OPPListObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPNumberObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 import com.vainolo.phd.opp.model.OPPObject;
 import com.vainolo.phd.opp.model.OPPState;
@@ -34,6 +35,8 @@ import static com.google.common.base.Preconditions.*;
  */
 public class OPPObjectInstanceValueAnalyzer {
 
+  private static final String RANGE_PATTERN = "(-)?(\\d+)(\\.\\.)(\\d+)";
+
   /**
    * Check if the value is a string literal. This is done by checking if the initial character in the value is either a
    * " or a '.
@@ -96,6 +99,14 @@ public class OPPObjectInstanceValueAnalyzer {
     return value.startsWith("[");
   }
 
+  /**
+   * Check if the literal is a range of integers, for example [1..5] or [5..1]. Ranges are created as lists that only
+   * store their bounds.
+   */
+  private boolean isRangeLiteral(String value) {
+    return value.startsWith("[") && value.endsWith("]") && value.substring(1, value.length() - 1).matches(RANGE_PATTERN);
+  }
+
   private boolean isComplexLiteral(String value) {
     return value.startsWith("{");
   }
@@ -109,17 +120,17 @@ public class OPPObjectInstanceValueAnalyzer {
     List<OPPObjectInstance> collection = Lists.newArrayList();
     literal = literal.substring(1, literal.length() - 1);
 
-    if (literal.matches("(-)?(\\d+)(\\.\\.)(\\d+)")) {
+    if (literal.matches(RANGE_PATTERN)) {
       String[] indices = literal.split("\\.\\.");
       int start = Integer.parseInt(indices[0]);
       int end = Integer.parseInt(indices[1]);
       if (start <= end) {
         for (int i = start; i <= end; i++) {
-          collection.add(OPPObjectInstance.createFromValue(new BigDecimal(i)));
+          collection.add(OPPObjectInstance.createFromValue(i));
         }
       } else {
         for (int i = start; i >= end; i--) {
-          collection.add(OPPObjectInstance.createFromValue(new BigDecimal(i)));
+          collection.add(OPPObjectInstance.createFromValue(i));
         }
       }
     } else {
@@ -185,6 +196,9 @@ public class OPPObjectInstanceValueAnalyzer {
       objectInstance = OPPObjectInstance.createFromValue(parseStringLiteral(value));
     } else if (isNumericalLiteral(value)) {
       objectInstance = OPPObjectInstance.createFromValue(parseNumericalLiteral(value));
+    } else if (isRangeLiteral(value)) {
+      String[] indices = value.substring(1, value.length() - 1).split("\\.\\.");
+      objectInstance = OPPObjectInstance.createRangeListInstance(Long.parseLong(indices[0]), Long.parseLong(indices[1]));
     } else if (isListLiteral(value)) {
       objectInstance = OPPObjectInstance.createListInstance();
       for (OPPObjectInstance o : parseCollectionLiteral(value)) {
@@ -212,32 +226,22 @@ public class OPPObjectInstanceValueAnalyzer {
    * @return <code>true</code> if the value of the object instance matches the state, <code>false</code> otherwise.
    */
   public boolean isObjectNumericalValueInState(String stateName, BigDecimal value) {
+    return isObjectNumericalValueInState(stateName, OPPObjectInstance.createFromValue(value));
+  }
+
+  /**
+   * Calculate if the value of an object is in a given state, comparing integral values as <code>long</code>s. The
+   * state name is compiled once and cached in the {@link OPPStatePredicateCache}.
+   * 
+   * @param stateName
+   *          the text in the state
+   * @param value
+   *          of the object instance that containts the state
+   * @return <code>true</code> if the value of the object instance matches the state, <code>false</code> otherwise.
+   */
+  public boolean isObjectNumericalValueInState(String stateName, OPPNumberObjectInstance value) {
     logFinest("Checking numerical state {0} against value {1}.", stateName, value);
-    if (isNumericalLiteral(stateName)) {
-      return parseNumericalLiteral(stateName).equals(value);
-    } else {
-      // state name is a numerical logical expression supported expressions are: x < NUM, x <= NUM, x > NUM, x >= NUM
-      if (stateName.contains("<=")) {
-        BigDecimal number = new BigDecimal(stateName.split("<=")[1]);
-        return value.compareTo(number) == -1 || value.compareTo(number) == 0;
-      } else if (stateName.contains("<")) {
-        BigDecimal number = new BigDecimal(stateName.split("<")[1]);
-        return value.compareTo(number) == -1;
-      } else if (stateName.contains(">=")) {
-        BigDecimal number = new BigDecimal(stateName.split(">=")[1]);
-        return value.compareTo(number) == 1 || value.compareTo(number) == 0;
-      } else if (stateName.contains(">")) {
-        BigDecimal number = new BigDecimal(stateName.split(">")[1]);
-        return value.compareTo(number) == 1;
-      } else if (stateName.contains("==")) {
-        BigDecimal number = new BigDecimal(stateName.split("==")[1]);
-        return value.compareTo(number) == 0;
-      } else if (stateName.contains("!=")) {
-        BigDecimal number = new BigDecimal(stateName.split("!=")[1]);
-        return value.compareTo(number) != 0;
-      }
-    }
-    return false;
+    return OPPStatePredicateCache.INSTANCE.getPredicate(stateName).matches(value);
   }
 
   /**
@@ -248,8 +252,9 @@ public class OPPObjectInstanceValueAnalyzer {
    * contains a string surrounded by """</li>
    * <li>If the instance is a numeric value, the current value must match a numerical comparison to the state. We
    * curently support equality (state with a number in it) and inequalities written "x op VAL" where x is the letter x,
-   * the operator can be any of <, <=, >, and >=, and the value is a valid number.
+   * the operator can be any of <, <=, >, >=, == and !=, and the value is a valid number.
    * </ol>
+   * The name of the state is compiled into an {@link OPPStatePredicate} the first time the state is checked.
    * 
    * @param instance
    *          the instance to check
@@ -262,10 +267,6 @@ public class OPPObjectInstanceValueAnalyzer {
     if (instance == null) {
       return false;
     }
-    if (isStringLiteral(state.getName()) || state.getName().matches("[a-zA-Z]+")) {
-      return (parseStringLiteral(state.getName()).equals(instance.getValue()) || state.getName().equals(instance.getValue()));
-    } else {
-      return isObjectNumericalValueInState(state.getName(), BigDecimal.class.cast(instance.getValue()));
-    }
+    return OPPStatePredicateCache.INSTANCE.getPredicate(state).matches(instance);
   }
 }
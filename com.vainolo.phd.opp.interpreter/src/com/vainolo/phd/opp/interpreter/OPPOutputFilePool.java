@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Files written by the processes of an {@link OPPExecutionSession}. Each file is opened once per session as a
+ * {@link FileChannel} with a buffered UTF-8 writer, and stays open until the session is closed, so writing a record
+ * costs I/O proportional to the record and not to the file. Buffered text is written to the files when the session is
+ * stopped or closed, and before a file is read with {@link #flush(Path)}.
+ * <p>
+ * The first time a file is opened in a session it is either truncated or appended to. After that, records are either
+ * appended to the file or replace its whole contents, depending on the <code>append</code> flag of each write.
+ */
+public class OPPOutputFilePool implements AutoCloseable {
+
+  private final Map<Path, OutputFile> files = new ConcurrentHashMap<>();
+  private volatile boolean closed = false;
+
+  /**
+   * Write text to a file.
+   *
+   * @param path
+   *          the file to write.
+   * @param text
+   *          the text to write.
+   * @param append
+   *          <code>true</code> to add the text at the end of the file, <code>false</code> to replace the contents of
+   *          the file with the text.
+   * @throws IllegalStateException
+   *           if the pool was closed.
+   */
+  public void write(Path path, CharSequence text, boolean append) throws IOException {
+    if (closed) {
+      throw new IllegalStateException("Output files were closed.");
+    }
+    OutputFile file;
+    try {
+      file = files.computeIfAbsent(key(path), p -> open(p, append));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    file.write(text, append);
+  }
+
+  /**
+   * Write the buffered text of a file, if the file was opened in this pool.
+   */
+  public void flush(Path path) throws IOException {
+    OutputFile file = files.get(key(path));
+    if (file != null) {
+      file.flush();
+    }
+  }
+
+  /**
+   * Write the buffered text of all the open files. Errors are logged.
+   */
+  public void flushAll() {
+    for (Map.Entry<Path, OutputFile> entry : files.entrySet()) {
+      try {
+        entry.getValue().flush();
+      } catch (IOException e) {
+        logSevere("Could not write file {0}: {1}", entry.getKey(), e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Write the buffered text of all the open files and close them. Errors are logged.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (Map.Entry<Path, OutputFile> entry : files.entrySet()) {
+      try {
+        entry.getValue().close();
+      } catch (IOException e) {
+        logSevere("Could not close file {0}: {1}", entry.getKey(), e.getMessage());
+      }
+    }
+    files.clear();
+  }
+
+  private static Path key(Path path) {
+    return path.toAbsolutePath().normalize();
+  }
+
+  private static OutputFile open(Path path, boolean append) {
+    try {
+      logFine("Opening output file {0}.", path);
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+      return new OutputFile(channel);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static final class OutputFile {
+    private final FileChannel channel;
+    private final Writer writer;
+
+    OutputFile(FileChannel channel) {
+      this.channel = channel;
+      this.writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1);
+    }
+
+    synchronized void write(CharSequence text, boolean append) throws IOException {
+      if (!append) {
+        writer.flush();
+        channel.truncate(0);
+        channel.position(0);
+      }
+      writer.append(text);
+    }
+
+    synchronized void flush() throws IOException {
+      writer.flush();
+    }
+
+    synchronized void close() throws IOException {
+      writer.close();
+    }
+  }
+}
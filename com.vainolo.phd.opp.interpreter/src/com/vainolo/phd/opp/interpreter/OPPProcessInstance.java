@@ -65,4 +65,14 @@ public interface OPPProcessInstance extends Callable<OPPProcessExecutionResult>
    * Set the name of the Process.
    */
   void setName(String name);
+
+  /**
+   * Set the session where this instance is executed. Must be called before the instance is executed.
+   */
+  void setSession(OPPExecutionSession session);
+
+  /**
+   * Get the session where this instance is executed.
+   */
+  OPPExecutionSession getSession();
 }
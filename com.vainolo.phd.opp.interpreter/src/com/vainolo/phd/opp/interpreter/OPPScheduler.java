@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static com.google.common.base.Preconditions.*;
+import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interpreter-wide scheduler where all process instances are executed. The scheduler is backed either by a bounded
+ * pool of platform threads or by virtual threads (when the running JVM supports them).
+ *
+ * In-zoomed process instances wait for their sub-processes while running inside the scheduler, so the platform pool
+ * is a {@link ForkJoinPool} and waiting is done using {@link #take(CompletionService)}, which lets the pool compensate
+ * blocked workers instead of dead-locking when the diagrams are deeper than the parallelism level.
+ */
+public class OPPScheduler {
+
+  public enum OPPSchedulerKind {
+    PLATFORM, VIRTUAL
+  }
+
+  private static final ThreadLocal<OPPScheduler> CURRENT = new ThreadLocal<>();
+
+  private final OPPSchedulerKind kind;
+  private final int parallelism;
+  private final ExecutorService executor;
+
+  private OPPScheduler(OPPSchedulerKind kind, int parallelism, ExecutorService executor) {
+    this.kind = kind;
+    this.parallelism = parallelism;
+    this.executor = executor;
+  }
+
+  /**
+   * Create a new scheduler.
+   *
+   * @param kind
+   *          the backing threads of the scheduler. If virtual threads are requested but not supported by the JVM, a
+   *          platform thread pool is used.
+   * @param parallelism
+   *          the number of platform threads that execute processes concurrently. Ignored for virtual threads.
+   * @return a new scheduler.
+   */
+  public static OPPScheduler create(OPPSchedulerKind kind, int parallelism) {
+    checkArgument(parallelism > 0, "Parallelism must be positive.");
+    if (kind == OPPSchedulerKind.VIRTUAL) {
+      ExecutorService virtualExecutor = createVirtualThreadExecutor();
+      if (virtualExecutor != null) {
+        logFine("Created virtual thread scheduler.");
+        return new OPPScheduler(OPPSchedulerKind.VIRTUAL, parallelism, virtualExecutor);
+      }
+      logWarning("Virtual threads are not supported by this JVM. Using platform threads.");
+    }
+    logFine("Created platform thread scheduler with parallelism {0}.", parallelism);
+    return new OPPScheduler(OPPSchedulerKind.PLATFORM, parallelism, new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true));
+  }
+
+  public static OPPScheduler createDefault() {
+    return create(OPPSchedulerKind.PLATFORM, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @return <code>true</code> if virtual threads can be used in this JVM.
+   */
+  public static boolean isVirtualThreadSupported() {
+    try {
+      Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static ExecutorService createVirtualThreadExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  public OPPSchedulerKind getKind() {
+    return kind;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Create a completion service whose tasks are executed in this scheduler.
+   */
+  public <T> CompletionService<T> createCompletionService() {
+    return new ExecutorCompletionService<>(new OPPSchedulerExecutor());
+  }
+
+  public <T> Future<T> submit(Callable<T> task) {
+    return executor.submit(wrap(task));
+  }
+
+  /**
+   * Wait for the next task in a completion service to finish. If called from inside a pool thread, the pool is
+   * notified so that it can add threads while this thread is blocked.
+   */
+  public <T> Future<T> take(CompletionService<T> completionService) throws InterruptedException {
+    OPPCompletionBlocker<T> blocker = new OPPCompletionBlocker<>(completionService);
+    ForkJoinPool.managedBlock(blocker);
+    return blocker.result;
+  }
+
+  /**
+   * @return <code>true</code> if the current thread is executing a task of this scheduler.
+   */
+  public boolean isSchedulerThread() {
+    return CURRENT.get() == this;
+  }
+
+  public boolean isShutdown() {
+    return executor.isShutdown();
+  }
+
+  /** Stop accepting new tasks and let the running tasks finish. */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Stop all running tasks. If called from outside the scheduler, wait until all the tasks have finished.
+   */
+  public void shutdownNow() {
+    executor.shutdownNow();
+    if (isSchedulerThread())
+      return;
+    while (!executor.isTerminated()) {
+      try {
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        logWarning("Interrupted while waiting for all processes to finish.");
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private <T> Callable<T> wrap(final Callable<T> task) {
+    return () -> {
+      OPPScheduler previous = CURRENT.get();
+      CURRENT.set(this);
+      try {
+        return task.call();
+      } finally {
+        if (previous == null)
+          CURRENT.remove();
+        else
+          CURRENT.set(previous);
+      }
+    };
+  }
+
+  private class OPPSchedulerExecutor implements java.util.concurrent.Executor {
+    @Override
+    public void execute(Runnable command) {
+      executor.execute(() -> {
+        OPPScheduler previous = CURRENT.get();
+        CURRENT.set(OPPScheduler.this);
+        try {
+          command.run();
+        } finally {
+          if (previous == null)
+            CURRENT.remove();
+          else
+            CURRENT.set(previous);
+        }
+      });
+    }
+  }
+
+  private static class OPPCompletionBlocker<T> implements ForkJoinPool.ManagedBlocker {
+    private final CompletionService<T> completionService;
+    private Future<T> result;
+
+    OPPCompletionBlocker(CompletionService<T> completionService) {
+      this.completionService = completionService;
+    }
+
+    @Override
+    public boolean block() throws InterruptedException {
+      if (result == null)
+        result = completionService.take();
+      return true;
+    }
+
+    @Override
+    public boolean isReleasable() {
+      if (result == null)
+        result = completionService.poll();
+      return result != null;
+    }
+  }
+}
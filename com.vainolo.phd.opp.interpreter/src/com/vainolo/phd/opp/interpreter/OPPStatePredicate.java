@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import java.math.BigDecimal;
+
+import com.vainolo.phd.opp.interpreter.types.OPPNumberObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.model.OPPState;
+
+/**
+ * The condition that an {@link OPPObjectInstance} must satisfy to be in an {@link OPPState}, compiled from the name of
+ * the state. A state name is either a literal (a quoted string or a word) that must be equal to the value of the
+ * instance, a number that must be numerically equal to the value of the instance, or a comparison "x op NUM" where the
+ * operator is one of <code>&lt;=, &lt;, &gt;=, &gt;, ==, !=</code>. Names that match none of these never match an
+ * instance.
+ * <p>
+ * Predicates are immutable, so a compiled predicate can be shared between threads. Testing a numerical instance against
+ * a numerical predicate does not allocate.
+ */
+public abstract class OPPStatePredicate {
+
+  private final String stateName;
+
+  private OPPStatePredicate(String stateName) {
+    this.stateName = stateName;
+  }
+
+  /**
+   * @return the state name from which this predicate was compiled.
+   */
+  public String getStateName() {
+    return stateName;
+  }
+
+  /**
+   * Check if an instance satisfies this predicate.
+   *
+   * @param instance
+   *          the instance to check. Must not be <code>null</code>.
+   * @return <code>true</code> if the value of the instance matches the state.
+   * @throws NumberFormatException
+   *           if this is a numerical predicate and the value of the instance is not a number.
+   */
+  public abstract boolean matches(OPPObjectInstance instance);
+
+  /**
+   * Compile a state name into a predicate.
+   *
+   * @param stateName
+   *          the name of the state. Must not be <code>null</code> or empty.
+   * @return the predicate represented by the state name.
+   * @throws NumberFormatException
+   *           if the name is a comparison whose right side is not a number.
+   */
+  public static OPPStatePredicate compile(String stateName) {
+    if (stateName.startsWith("\"") || stateName.startsWith("'") || isWord(stateName)) {
+      return new LiteralPredicate(stateName);
+    }
+    if (isNumber(stateName)) {
+      return new ComparisonPredicate(stateName, Operator.EQ, OPPNumberObjectInstance.parse(stateName));
+    }
+    for (Operator operator : Operator.values()) {
+      if (stateName.contains(operator.symbol)) {
+        return new ComparisonPredicate(stateName, operator, OPPNumberObjectInstance.parse(stateName.split(operator.symbol)[1]));
+      }
+    }
+    return new NeverPredicate(stateName);
+  }
+
+  private static boolean isWord(String name) {
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')))
+        return false;
+    }
+    return !name.isEmpty();
+  }
+
+  private static boolean isNumber(String name) {
+    try {
+      new BigDecimal(name);
+      return true;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Comparison operators, in the order in which they are searched in the state name.
+   */
+  enum Operator {
+    LE("<=") {
+      @Override
+      boolean test(int comparison) {
+        return comparison <= 0;
+      }
+    },
+    LT("<") {
+      @Override
+      boolean test(int comparison) {
+        return comparison < 0;
+      }
+    },
+    GE(">=") {
+      @Override
+      boolean test(int comparison) {
+        return comparison >= 0;
+      }
+    },
+    GT(">") {
+      @Override
+      boolean test(int comparison) {
+        return comparison > 0;
+      }
+    },
+    EQ("==") {
+      @Override
+      boolean test(int comparison) {
+        return comparison == 0;
+      }
+    },
+    NE("!=") {
+      @Override
+      boolean test(int comparison) {
+        return comparison != 0;
+      }
+    };
+
+    private final String symbol;
+
+    private Operator(String symbol) {
+      this.symbol = symbol;
+    }
+
+    abstract boolean test(int comparison);
+  }
+
+  /**
+   * The value of the instance must be equal to the literal, either with or without its first and last characters (the
+   * quotes of a string literal).
+   */
+  private static final class LiteralPredicate extends OPPStatePredicate {
+    private final String unquoted;
+
+    LiteralPredicate(String stateName) {
+      super(stateName);
+      this.unquoted = stateName.length() >= 2 ? stateName.substring(1, stateName.length() - 1) : null;
+    }
+
+    @Override
+    public boolean matches(OPPObjectInstance instance) {
+      Object value = instance.getValue();
+      return getStateName().equals(value) || (unquoted != null && unquoted.equals(value));
+    }
+
+    @Override
+    public String toString() {
+      return "== " + getStateName();
+    }
+  }
+
+  private static final class ComparisonPredicate extends OPPStatePredicate {
+    private final Operator operator;
+    private final OPPNumberObjectInstance operand;
+
+    ComparisonPredicate(String stateName, Operator operator, OPPNumberObjectInstance operand) {
+      super(stateName);
+      this.operator = operator;
+      this.operand = operand;
+    }
+
+    @Override
+    public boolean matches(OPPObjectInstance instance) {
+      return operator.test(OPPNumberObjectInstance.asNumber(instance).compareTo(operand));
+    }
+
+    @Override
+    public String toString() {
+      return "x " + operator.symbol + " " + operand;
+    }
+  }
+
+  private static final class NeverPredicate extends OPPStatePredicate {
+    NeverPredicate(String stateName) {
+      super(stateName);
+    }
+
+    @Override
+    public boolean matches(OPPObjectInstance instance) {
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      return "false";
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.vainolo.phd.opp.model.OPPState;
+
+/**
+ * Cache of {@link OPPStatePredicate}s. Predicates are cached by the identity of the {@link OPPState} and are compiled
+ * again if the name of the state changes. States are weakly referenced, so predicates of unloaded diagrams are
+ * collected. Predicates are also cached by state name in a size-bounded cache, for callers that only have the name.
+ */
+public enum OPPStatePredicateCache {
+  INSTANCE;
+
+  public static final int DEFAULT_MAXIMUM_NAMES = 1000;
+
+  private final Cache<OPPState, OPPStatePredicate> predicates = CacheBuilder.newBuilder().weakKeys().build();
+  private final Cache<String, OPPStatePredicate> predicatesByName = CacheBuilder.newBuilder().maximumSize(DEFAULT_MAXIMUM_NAMES).build();
+
+  /**
+   * Get the predicate of an {@link OPPState}, compiling it if needed.
+   *
+   * @param state
+   *          a state with a non-empty name.
+   * @return the predicate of the state.
+   */
+  public OPPStatePredicate getPredicate(OPPState state) {
+    String name = state.getName();
+    OPPStatePredicate predicate = predicates.getIfPresent(state);
+    if (predicate == null || !predicate.getStateName().equals(name)) {
+      predicate = getPredicate(name);
+      predicates.put(state, predicate);
+    }
+    return predicate;
+  }
+
+  /**
+   * Get the predicate of a state name, compiling it if needed.
+   *
+   * @param name
+   *          a non-empty state name.
+   * @return the predicate of the state name.
+   * @throws NumberFormatException
+   *           if the name compares with a value that is not a number.
+   */
+  public OPPStatePredicate getPredicate(String name) {
+    OPPStatePredicate predicate = predicatesByName.getIfPresent(name);
+    if (predicate == null) {
+      predicate = OPPStatePredicate.compile(name);
+      logFinest("Compiled state {0} into {1}.", name, predicate);
+      predicatesByName.put(name, predicate);
+    }
+    return predicate;
+  }
+
+  public void clear() {
+    predicates.invalidateAll();
+    predicatesByName.invalidateAll();
+  }
+}
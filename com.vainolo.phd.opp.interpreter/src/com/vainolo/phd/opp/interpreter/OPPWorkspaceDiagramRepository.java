@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter;
+
+import static com.google.common.base.Preconditions.*;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.runtime.Path;
+
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+import com.vainolo.phd.opp.utilities.OPPFileUtils;
+
+/**
+ * Repository of the diagrams stored in a workspace container.
+ */
+public class OPPWorkspaceDiagramRepository implements OPPDiagramRepository {
+
+  private final IContainer container;
+
+  public OPPWorkspaceDiagramRepository(IContainer container) {
+    this.container = checkNotNull(container);
+  }
+
+  @Override
+  public OPPObjectProcessDiagram loadDiagram(String opdName) {
+    return OPPFileUtils.loadCachedOPPFile(container.getFile(new Path(opdName + ".opp")));
+  }
+
+  @Override
+  public String getFilePath(String fileName) {
+    return container.getFile(new Path(fileName)).getRawLocation().toString();
+  }
+
+  public IContainer getContainer() {
+    return container;
+  }
+}
@@ -6,13 +6,13 @@
  *******************************************************************************/
 package com.vainolo.phd.opp.interpreter.builtin;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 import com.google.common.collect.Lists;
 import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
+import com.vainolo.phd.opp.interpreter.OPPInlineProcessInstance;
 import com.vainolo.phd.opp.interpreter.OPPParameter;
-import com.vainolo.phd.opp.interpreter.OPPProcessInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPNumberObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 
 /**
@@ -22,7 +22,7 @@ import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
  * @created 9 Jul 2012
  * 
  */
-public class OPPCompareProcessInstance extends OPPAbstractProcessInstance implements OPPProcessInstance {
+public class OPPCompareProcessInstance extends OPPAbstractProcessInstance implements OPPInlineProcessInstance {
   public enum ComparisonType {
     EQUAL, DIFFERENT, GREATER_THAN, GREATER_THAN_OR_EQUAL, LESS_THAN, LESS_THAN_OR_EQUAL
   }
@@ -35,28 +35,30 @@ public class OPPCompareProcessInstance extends OPPAbstractProcessInstance implem
 
   @Override
   public void executing() {
-    BigDecimal a = getArgument("a").getNumericalValue();
-    BigDecimal b = getArgument("b").getNumericalValue();
+    OPPNumberObjectInstance a = OPPNumberObjectInstance.asNumber(getArgument("a"));
+    OPPNumberObjectInstance b = OPPNumberObjectInstance.asNumber(getArgument("b"));
     OPPObjectInstance c;
 
+    int comparison = a.compareTo(b);
     boolean result = false;
     switch (comparisonType) {
     case EQUAL:
-      result = (a.compareTo(b) == 0);
+      result = (comparison == 0);
       break;
     case DIFFERENT:
-      result = (a.compareTo(b) != 0);
+      result = (comparison != 0);
+      break;
     case GREATER_THAN:
-      result = (a.compareTo(b) > 0);
+      result = (comparison > 0);
       break;
     case GREATER_THAN_OR_EQUAL:
-      result = (a.compareTo(b) > 0) || (a.compareTo(b) == 0);
+      result = (comparison >= 0);
       break;
     case LESS_THAN:
-      result = (a.compareTo(b) < 0);
+      result = (comparison < 0);
       break;
     case LESS_THAN_OR_EQUAL:
-      result = (a.compareTo(b) < 0) || (a.compareTo(b) == 0);
+      result = (comparison <= 0);
       break;
     }
 
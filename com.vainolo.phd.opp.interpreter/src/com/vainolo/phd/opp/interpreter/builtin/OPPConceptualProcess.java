@@ -9,7 +9,7 @@ package com.vainolo.phd.opp.interpreter.builtin;
 import static com.vainolo.phd.opp.utilities.OPPLogger.*;
 
 import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
-import com.vainolo.phd.opp.interpreter.OPPProcessInstance;
+import com.vainolo.phd.opp.interpreter.OPPInlineProcessInstance;
 import com.vainolo.phd.opp.model.OPPProcess;
 
 /**
@@ -19,7 +19,7 @@ import com.vainolo.phd.opp.model.OPPProcess;
  * @created 10 Jul 2012
  * 
  */
-public class OPPConceptualProcess extends OPPAbstractProcessInstance implements OPPProcessInstance {
+public class OPPConceptualProcess extends OPPAbstractProcessInstance implements OPPInlineProcessInstance {
 
   private OPPProcess process;
 
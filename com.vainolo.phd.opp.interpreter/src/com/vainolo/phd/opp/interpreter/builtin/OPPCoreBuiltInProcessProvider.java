@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.builtin;
+
+import com.vainolo.phd.opp.interpreter.OPPBuiltInProcessProvider;
+import com.vainolo.phd.opp.interpreter.OPPBuiltInProcessRegistry;
+import com.vainolo.phd.opp.interpreter.builtin.OPPCompareProcessInstance.ComparisonType;
+import com.vainolo.phd.opp.interpreter.builtin.composite.OPPAddFirstPartProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.OPPAddLastPartProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.OPPAddPartProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.OPPGetFirstPartProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.OPPGetLastPartProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.OPPGetPartProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.OPPHasPartProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.OPPHasPartValueProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.OPPHasPartsProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.OPPRemoveFirstPartProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.OPPRemoveLastPartProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.OPPRemovePartProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.complex.OPPAllPartNamesFetchingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.complex.OPPAllPartsFetchingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.complex.OPPPartAddingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.complex.OPPPartFetchingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.complex.OPPPartRemovingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.general.OPPElementCountingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.list.OPPFirstElementAddingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.list.OPPFirstElementFetchingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.list.OPPFirstElementRemovingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.list.OPPLastElementAddingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.list.OPPLastElementFetchingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.list.OPPLastElementRemovingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.list.OPPLocationElementAddingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.list.OPPLocationElementFetchingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.composite.list.OPPLocationElementRemovingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.general.OPPObjectCopyingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.general.OPPObjectCreatingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.general.OPPRandomProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.io.OPPConsoleReadingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.io.OPPConsoleWritingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.io.OPPDialogTextReadingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.io.OPPDialogTextWritingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.io.OPPTextFileReadingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.io.OPPTextFileWritingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.io.OPPTransformJSONStringToObjectProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.math.OPPBinaryMathOpProcessInstance.OPPBinaryMathOpType;
+import com.vainolo.phd.opp.interpreter.builtin.math.OPPBinaryMathOpProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.math.OPPComparingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.math.OPPUnaryMathOpProcessInstance.OPPUnaryMathOpType;
+import com.vainolo.phd.opp.interpreter.builtin.math.OPPUnaryMathOpProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.string.OPPConcatenatingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.string.OPPStringComparingProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.twitter.OPPInitializeTwitterClientProcessInstance;
+import com.vainolo.phd.opp.interpreter.builtin.twitter.OPPSearchTwitter;
+import com.vainolo.phd.opp.interpreter.builtin.web.OPPCallWebAPIProcessInstance;
+
+/**
+ * The built-in processes of the interpreter.
+ */
+public class OPPCoreBuiltInProcessProvider implements OPPBuiltInProcessProvider {
+
+  @Override
+  public void registerBuiltInProcesses(OPPBuiltInProcessRegistry registry) {
+    // runtime
+    registry.register(OPPObjectCreatingProcessInstance::new, "object creating", "create object");
+    registry.register(OPPObjectCopyingProcessInstance::new, "object copying", "copy", "copy object");
+
+    // math
+    registry.register(() -> new OPPBinaryMathOpProcessInstance(OPPBinaryMathOpType.ADD), "+", "adding");
+    registry.register(() -> new OPPBinaryMathOpProcessInstance(OPPBinaryMathOpType.SUBS), "-", "subtracting");
+    registry.register(() -> new OPPBinaryMathOpProcessInstance(OPPBinaryMathOpType.MULT), "*", "multiplying");
+    registry.register(() -> new OPPBinaryMathOpProcessInstance(OPPBinaryMathOpType.DIV), "/", "dividing");
+    registry.register(() -> new OPPBinaryMathOpProcessInstance(OPPBinaryMathOpType.POW), "^", "power");
+    registry.register(OPPComparingProcessInstance::new, "number comparing", "number compare");
+
+    // Strings
+    registry.register(OPPConcatenatingProcessInstance::new, "concatenating", "concatenate");
+    registry.register(OPPStringComparingProcessInstance::new, "string comparing", "string compare");
+
+    // Collections
+    registry.register(OPPElementCountingProcessInstance::new, "element counting", "count");
+
+    // List
+    registry.register(OPPFirstElementAddingProcessInstance::new, "first element adding", "add first");
+    registry.register(OPPFirstElementFetchingProcessInstance::new, "first element fetching", "get first");
+    registry.register(OPPFirstElementRemovingProcessInstance::new, "first element removing", "remove first");
+    registry.register(OPPLocationElementAddingProcessInstance::new, "location element adding", "add element");
+    registry.register(OPPLocationElementFetchingProcessInstance::new, "location element fetching", "fetch element");
+    registry.register(OPPLocationElementRemovingProcessInstance::new, "location element removing", "remove element");
+    registry.register(OPPLastElementAddingProcessInstance::new, "last element adding", "add last");
+    registry.register(OPPLastElementFetchingProcessInstance::new, "last element fetching", "fetch last");
+    registry.register(OPPLastElementRemovingProcessInstance::new, "last element removing", "remove last");
+
+    // Complex Object
+    registry.register(OPPPartAddingProcessInstance::new, "part adding", "add part");
+    registry.register(OPPPartFetchingProcessInstance::new, "part fetching", "fetch part");
+    registry.register(OPPPartRemovingProcessInstance::new, "part removing", "remove part");
+    registry.register(OPPAllPartsFetchingProcessInstance::new, "all parts fetching", "fetch parts");
+    registry.register(OPPAllPartNamesFetchingProcessInstance::new, "all part names fetching", "fetch part names");
+
+    // IO
+    registry.register(OPPConsoleReadingProcessInstance::new, "console reading", "console input");
+    registry.register(OPPConsoleWritingProcessInstance::new, "console writing", "console output");
+    registry.register(OPPDialogTextReadingProcessInstance::new, "dialog text reading", "dialog input");
+    registry.register(OPPDialogTextWritingProcessInstance::new, "dialog text writing", "dialog output");
+    registry.register(OPPTextFileReadingProcessInstance::new, "text file reading", "read text file");
+    registry.register(() -> new OPPTextFileWritingProcessInstance(false), "text file writing", "write text file");
+    registry.register(() -> new OPPTextFileWritingProcessInstance(true), "text file appending", "append text file");
+
+    // comparison and unary math
+    registry.register(() -> new OPPCompareProcessInstance(ComparisonType.LESS_THAN_OR_EQUAL), "a<=b", "<=");
+    registry.register(() -> new OPPCompareProcessInstance(ComparisonType.GREATER_THAN_OR_EQUAL), "a>=b", ">=");
+    registry.register(() -> new OPPCompareProcessInstance(ComparisonType.GREATER_THAN), "a>b", ">");
+    registry.register(() -> new OPPCompareProcessInstance(ComparisonType.LESS_THAN), "a<b", "<");
+    registry.register(() -> new OPPCompareProcessInstance(ComparisonType.EQUAL), "a==b", "==");
+    registry.register(() -> new OPPUnaryMathOpProcessInstance(OPPUnaryMathOpType.LOG), "log(a)", "log");
+    // "-" is subtraction
+    registry.register(() -> new OPPUnaryMathOpProcessInstance(OPPUnaryMathOpType.NEG), "-a");
+    registry.register(() -> new OPPUnaryMathOpProcessInstance(OPPUnaryMathOpType.SQRT), "sqrt(a)", "sqrt");
+
+    // Misc
+    registry.register(OPPSleepProcessInstance::new, "sleep");
+    registry.register(OPPCallWebAPIProcessInstance::new, "call web api");
+    registry.register(OPPInitializeTwitterClientProcessInstance::new, "initialize twitter client");
+    registry.register(OPPSearchTwitter::new, "search twitter");
+    registry.register(OPPGetDateProcessInstance::new, "get date", "date fetching");
+    registry.register(OPPTransformJSONStringToObjectProcessInstance::new, "transform json string to object");
+    registry.register(OPPRandomProcessInstance::new, "random");
+  }
+}
@@ -29,7 +29,7 @@ public class OPPSleepProcessInstance extends OPPAbstractProcessInstance implemen
     double time = getArgument("time").getNumericalValue().doubleValue();
     logInfo("Sleeping for " + time + " seconds.");
     try {
-      Thread.sleep((int) time * 1000);
+      Thread.sleep((long) (time * 1000));
     } catch (InterruptedException e) {
       logFinest("Sleep process interrupted. Returning.");
       return;
@@ -4,6 +4,7 @@ import java.util.List;
 
 import com.google.common.collect.Lists;
 import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
+import com.vainolo.phd.opp.interpreter.OPPInlineProcessInstance;
 import com.vainolo.phd.opp.interpreter.OPPParameter;
 import com.vainolo.phd.opp.interpreter.types.OPPComplexObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPListObjectInstance;
@@ -11,7 +12,7 @@ import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPStringObjectInstance;
 import com.vainolo.phd.opp.model.OPPObject;
 
-public class OPPAllPartNamesFetchingProcessInstance extends OPPAbstractProcessInstance {
+public class OPPAllPartNamesFetchingProcessInstance extends OPPAbstractProcessInstance implements OPPInlineProcessInstance {
 
   @Override
   protected void executing() throws Exception {
@@ -4,13 +4,14 @@ import java.util.List;
 
 import com.google.common.collect.Lists;
 import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
+import com.vainolo.phd.opp.interpreter.OPPInlineProcessInstance;
 import com.vainolo.phd.opp.interpreter.OPPParameter;
 import com.vainolo.phd.opp.interpreter.types.OPPComplexObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPListObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPStringObjectInstance;
 
-public class OPPPartRemovingProcessInstance extends OPPAbstractProcessInstance {
+public class OPPPartRemovingProcessInstance extends OPPAbstractProcessInstance implements OPPInlineProcessInstance {
 
   @Override
   protected void executing() throws Exception {
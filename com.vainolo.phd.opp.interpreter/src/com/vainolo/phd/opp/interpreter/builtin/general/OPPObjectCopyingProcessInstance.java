@@ -10,13 +10,14 @@ import java.util.List;
 
 import com.google.common.collect.Lists;
 import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
+import com.vainolo.phd.opp.interpreter.OPPInlineProcessInstance;
 import com.vainolo.phd.opp.interpreter.OPPParameter;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 
 /**
  * Process instance that handles basic binary math operations
  */
-public class OPPObjectCopyingProcessInstance extends OPPAbstractProcessInstance {
+public class OPPObjectCopyingProcessInstance extends OPPAbstractProcessInstance implements OPPInlineProcessInstance {
   @Override
   public void executing() {
     OPPObjectInstance object = getArgument("object");
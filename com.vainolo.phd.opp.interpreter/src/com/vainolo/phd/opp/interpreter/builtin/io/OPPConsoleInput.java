@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.builtin.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * Standard input shared by all the processes that read from the console. Lines are read through a single buffered
+ * reader, so a process does not lose input that was buffered while another process read its line, and concurrent
+ * processes print their prompt and read their line one at a time. The reader is created again if {@link System#in} is
+ * replaced.
+ */
+public enum OPPConsoleInput {
+  INSTANCE;
+
+  private InputStream in;
+  private BufferedReader reader;
+
+  /**
+   * Print a prompt and read the next line of the standard input.
+   *
+   * @param prompt
+   *          the text printed before reading, or <code>null</code> to read without printing.
+   * @return the line that was read, or <code>null</code> if the end of the input was reached.
+   */
+  public synchronized String readLine(String prompt) throws IOException {
+    if (prompt != null)
+      System.out.println(prompt);
+    if (reader == null || in != System.in) {
+      in = System.in;
+      reader = new BufferedReader(new InputStreamReader(in));
+    }
+    return reader.readLine();
+  }
+}
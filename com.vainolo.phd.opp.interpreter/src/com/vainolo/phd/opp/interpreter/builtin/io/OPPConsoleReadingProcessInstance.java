@@ -6,10 +6,7 @@
  *******************************************************************************/
 package com.vainolo.phd.opp.interpreter.builtin.io;
 
-import java.io.BufferedReader;
-
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.List;
 
 import com.google.common.collect.Lists;
@@ -30,12 +27,9 @@ public class OPPConsoleReadingProcessInstance extends OPPAbstractProcessInstance
   @Override
   protected void executing() {
     OPPObjectInstance prompt = getArgument("prompt");
-    if (prompt != null)
-      System.out.println(prompt);
-    BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
     String input = "";
     try {
-      input = br.readLine();
+      input = OPPConsoleInput.INSTANCE.readLine(prompt == null ? null : prompt.toString());
       if (input != null) {
 
         if (!input.matches("(\\[.*)|(\\{.*)|([0-9].*)|(\".*)")) {
@@ -7,6 +7,8 @@
 package com.vainolo.phd.opp.interpreter.builtin.io;
 
 import java.awt.Font;
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
 import java.util.List;
 
 import javax.swing.JOptionPane;
@@ -18,6 +20,10 @@ import com.vainolo.phd.opp.interpreter.OPPParameter;
 import com.vainolo.phd.opp.interpreter.OPPProcessInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 
+/**
+ * Read a value from an input dialog. When there is no display, the value is read from the standard input through the
+ * shared {@link OPPConsoleInput}.
+ */
 public class OPPDialogTextReadingProcessInstance extends OPPAbstractProcessInstance implements OPPProcessInstance {
 
   private OPPObjectInstanceValueAnalyzer valueAnalyzer;
@@ -27,14 +33,19 @@ public class OPPDialogTextReadingProcessInstance extends OPPAbstractProcessInsta
   }
 
   @Override
-  protected void executing() {
+  protected void executing() throws IOException {
     OPPObjectInstance prompt = getArgument("prompt");
     if (prompt == null)
       prompt = OPPObjectInstance.createFromValue("Enter a value");
 
-    javax.swing.UIManager.put("OptionPane.messageFont", new Font("Segoe UI", Font.PLAIN, 25));
-    javax.swing.UIManager.put("TextField.font", new Font("Segoe UI", Font.PLAIN, 25));
-    String input = JOptionPane.showInputDialog(prompt.getStringValue());
+    String input;
+    if (GraphicsEnvironment.isHeadless()) {
+      input = OPPConsoleInput.INSTANCE.readLine(prompt.getStringValue());
+    } else {
+      javax.swing.UIManager.put("OptionPane.messageFont", new Font("Segoe UI", Font.PLAIN, 25));
+      javax.swing.UIManager.put("TextField.font", new Font("Segoe UI", Font.PLAIN, 25));
+      input = JOptionPane.showInputDialog(prompt.getStringValue());
+    }
 
     if (input != null) {
 
@@ -6,6 +6,7 @@
  *******************************************************************************/
 package com.vainolo.phd.opp.interpreter.builtin.io;
 
+import java.awt.GraphicsEnvironment;
 import java.util.List;
 
 import javax.swing.JOptionPane;
@@ -15,11 +16,18 @@ import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
 import com.vainolo.phd.opp.interpreter.OPPParameter;
 import com.vainolo.phd.opp.interpreter.OPPProcessInstance;
 
+/**
+ * Show a value in a message dialog. When there is no display, the value is written to the standard output.
+ */
 public class OPPDialogTextWritingProcessInstance extends OPPAbstractProcessInstance implements OPPProcessInstance {
 
   @Override
   protected void executing() {
     Object text = getArgument("object");
+    if (GraphicsEnvironment.isHeadless()) {
+      System.out.println(text);
+      return;
+    }
     JOptionPane.showMessageDialog(null, text.toString());
   }
 
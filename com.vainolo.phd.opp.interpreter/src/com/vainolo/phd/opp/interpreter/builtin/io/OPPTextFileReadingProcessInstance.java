@@ -6,22 +6,19 @@
  *******************************************************************************/
 package com.vainolo.phd.opp.interpreter.builtin.io;
 
+import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+
 import java.io.IOException;
 
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 
-import org.eclipse.core.runtime.Path;
-
-import com.eclipsesource.json.Json;
-import com.eclipsesource.json.JsonValue;
 import com.google.common.collect.Lists;
 import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
-import com.vainolo.phd.opp.interpreter.OPPInterpreter;
-import com.vainolo.phd.opp.interpreter.OPPObjectInstanceValueAnalyzer;
 import com.vainolo.phd.opp.interpreter.OPPParameter;
 import com.vainolo.phd.opp.interpreter.OPPProcessInstance;
+import com.vainolo.phd.opp.interpreter.json.OPPJsonParseException;
 import com.vainolo.phd.opp.interpreter.json.OPPJsonReader;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 
@@ -29,17 +26,19 @@ public class OPPTextFileReadingProcessInstance extends OPPAbstractProcessInstanc
 
   @Override
   protected void executing() {
-    OPPObjectInstanceValueAnalyzer analyzer = new OPPObjectInstanceValueAnalyzer();
-    String filename = OPPInterpreter.container.getFile(new Path(getArgument("file name").getStringValue())).getRawLocation().toString();
+    String filename = getSession().getDiagramRepository().getFilePath(getArgument("file name").getStringValue());
     try {
-      String contents = new String(Files.readAllBytes(Paths.get(filename)));
-      JsonValue value = Json.parse(contents);
-      // OPPObjectInstance object = analyzer.calculateOPMObjectValue(contents);
+      Path path = Paths.get(filename);
+      getSession().getOutputFiles().flush(path);
       OPPJsonReader reader = new OPPJsonReader();
-      OPPObjectInstance object = reader.read(value);
+      OPPObjectInstance object = reader.read(path);
       setArgument("input", object);
       setArgument("file error?", OPPObjectInstance.createFromValue("no"));
       setArgument("parse error?", OPPObjectInstance.createFromValue("no"));
+    } catch (OPPJsonParseException e) {
+      logSevere("Could not parse file {0}: {1}", filename, e.getMessage());
+      setArgument("file error?", OPPObjectInstance.createFromValue("no"));
+      setArgument("parse error?", OPPObjectInstance.createFromValue("yes"));
     } catch (IOException e) {
       e.printStackTrace();
       setArgument("file error?", OPPObjectInstance.createFromValue("yes"));
@@ -7,27 +7,35 @@
 package com.vainolo.phd.opp.interpreter.builtin.io;
 
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.file.Paths;
 import java.util.List;
 
-import org.eclipse.core.runtime.Path;
-
 import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
-import com.vainolo.phd.opp.interpreter.OPPInterpreter;
 import com.vainolo.phd.opp.interpreter.OPPParameter;
 import com.vainolo.phd.opp.interpreter.OPPProcessInstance;
+import com.vainolo.phd.opp.interpreter.json.OPPJsonWriter;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 
+/**
+ * Writes an object to a file as JSON. The file is written through the output files of the execution session, so it is
+ * opened once per execution. When appending, each object is written in a new line at the end of the file; otherwise the
+ * object replaces the contents of the file.
+ */
 public class OPPTextFileWritingProcessInstance extends OPPAbstractProcessInstance implements OPPProcessInstance {
 
+  private final boolean append;
+
+  public OPPTextFileWritingProcessInstance(boolean append) {
+    this.append = append;
+  }
+
   @Override
   protected void executing() {
-    String filename = OPPInterpreter.container.getFile(new Path(getArgument("file name").getStringValue())).getRawLocation().toString();
+    String filename = getSession().getDiagramRepository().getFilePath(getArgument("file name").getStringValue());
     OPPObjectInstance object = getArgument("object");
     try {
-      PrintWriter writer = new PrintWriter(filename, "UTF-8");
-      writer.print(object.toString());
-      writer.close();
+      String record = new OPPJsonWriter().toJson(object);
+      getSession().getOutputFiles().write(Paths.get(filename), append ? record + System.lineSeparator() : record, append);
       setArgument("file error?", OPPObjectInstance.createFromValue("no"));
     } catch (IOException e) {
       e.printStackTrace();
@@ -37,7 +45,7 @@ public class OPPTextFileWritingProcessInstance extends OPPAbstractProcessInstanc
 
   @Override
   public String getName() {
-    return "Text File Writing";
+    return append ? "Text File Appending" : "Text File Writing";
   }
 
   @Override
@@ -8,7 +8,6 @@ package com.vainolo.phd.opp.interpreter.builtin.io;
 
 import java.util.List;
 
-import com.eclipsesource.json.JsonObject;
 import com.google.common.collect.Lists;
 import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
 import com.vainolo.phd.opp.interpreter.OPPParameter;
@@ -22,8 +21,7 @@ public class OPPWriteOPMObjectInstanceToJSON extends OPPAbstractProcessInstance
   protected void executing() {
     OPPJsonWriter writer = new OPPJsonWriter();
     OPPObjectInstance opmObjectInstance = getArgument("object");
-    JsonObject jsonObject = writer.write(opmObjectInstance);
-    setArgument("json", OPPObjectInstance.createFromValue(jsonObject.toString()));
+    setArgument("json", OPPObjectInstance.createFromValue(writer.toJson(opmObjectInstance)));
   }
 
   @Override
@@ -6,18 +6,18 @@
  *******************************************************************************/
 package com.vainolo.phd.opp.interpreter.builtin.math;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 import com.google.common.collect.Lists;
 import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
+import com.vainolo.phd.opp.interpreter.OPPInlineProcessInstance;
 import com.vainolo.phd.opp.interpreter.OPPParameter;
-import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPNumberObjectInstance;
 
 /**
  * Process instance that handles basic binary math operations
  */
-public class OPPBinaryMathOpProcessInstance extends OPPAbstractProcessInstance {
+public class OPPBinaryMathOpProcessInstance extends OPPAbstractProcessInstance implements OPPInlineProcessInstance {
 
   private OPPBinaryMathOpType opType;
 
@@ -27,28 +27,27 @@ public class OPPBinaryMathOpProcessInstance extends OPPAbstractProcessInstance {
 
   @Override
   public void executing() {
-    BigDecimal a = getArgument("a").getNumericalValue();
-    BigDecimal b = getArgument("b").getNumericalValue();
-    BigDecimal c = new BigDecimal(0);
+    OPPNumberObjectInstance a = OPPNumberObjectInstance.asNumber(getArgument("a"));
+    OPPNumberObjectInstance b = OPPNumberObjectInstance.asNumber(getArgument("b"));
+    OPPNumberObjectInstance c = null;
     switch (opType) {
     case ADD:
-      c = a.add(b);
+      c = OPPNumberObjectInstance.add(a, b);
       break;
     case SUBS:
-      c = a.subtract(b);
+      c = OPPNumberObjectInstance.subtract(a, b);
       break;
     case MULT:
-      c = a.multiply(b);
+      c = OPPNumberObjectInstance.multiply(a, b);
       break;
     case DIV:
-      c = a.divide(b);
+      c = OPPNumberObjectInstance.divide(a, b);
       break;
     case POW:
-      c = a.pow(b.intValueExact());
+      c = OPPNumberObjectInstance.pow(a, b);
       break;
     }
-    OPPObjectInstance instance = OPPObjectInstance.createFromValue(c);
-    setArgument("c", instance);
+    setArgument("c", c);
   }
 
   @Override
@@ -11,10 +11,11 @@ import java.util.List;
 
 import com.google.common.collect.Lists;
 import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
+import com.vainolo.phd.opp.interpreter.OPPInlineProcessInstance;
 import com.vainolo.phd.opp.interpreter.OPPParameter;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 
-public class OPPComparingProcessInstance extends OPPAbstractProcessInstance {
+public class OPPComparingProcessInstance extends OPPAbstractProcessInstance implements OPPInlineProcessInstance {
 
   public OPPComparingProcessInstance() {
   }
@@ -11,13 +11,15 @@ import java.util.List;
 
 import com.google.common.collect.Lists;
 import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
+import com.vainolo.phd.opp.interpreter.OPPInlineProcessInstance;
 import com.vainolo.phd.opp.interpreter.OPPParameter;
+import com.vainolo.phd.opp.interpreter.types.OPPNumberObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 
 /**
  * Process instance that handles basic unary math operations
  */
-public class OPPUnaryMathOpProcessInstance extends OPPAbstractProcessInstance {
+public class OPPUnaryMathOpProcessInstance extends OPPAbstractProcessInstance implements OPPInlineProcessInstance {
 
   private OPPUnaryMathOpType opType;
 
@@ -27,23 +29,20 @@ public class OPPUnaryMathOpProcessInstance extends OPPAbstractProcessInstance {
 
   @Override
   public void executing() {
-    BigDecimal a = getArgument("a").getNumericalValue();
-    BigDecimal b = BigDecimal.ZERO;
+    OPPNumberObjectInstance a = OPPNumberObjectInstance.asNumber(getArgument("a"));
+    OPPObjectInstance b = null;
     switch (opType) {
     case LOG:
-      double a_double = a.doubleValue();
-      b = new BigDecimal(Math.log(a_double));
+      b = OPPObjectInstance.createFromValue(new BigDecimal(Math.log(a.getNumericalValue().doubleValue())));
       break;
     case NEG:
-      b = a.negate();
+      b = OPPNumberObjectInstance.negate(a);
       break;
     case SQRT:
-      a_double = a.doubleValue();
-      b = new BigDecimal(Math.sqrt(a_double));
+      b = OPPObjectInstance.createFromValue(new BigDecimal(Math.sqrt(a.getNumericalValue().doubleValue())));
       break;
     }
-    OPPObjectInstance instance = OPPObjectInstance.createFromValue(b);
-    setArgument("b", instance);
+    setArgument("b", b);
   }
 
   @Override
@@ -28,16 +28,30 @@ import com.vainolo.phd.opp.utilities.analysis.OPPProcessExtensions;
 
 public class OPPInZoomedProcessArgumentHandler {
   private OPPInZoomedProcessInstanceHeap heap;
+  private OPPInZoomedProcessExecutionPlan plan;
 
   public OPPInZoomedProcessArgumentHandler(OPPInZoomedProcessInstanceHeap heap) {
+    this(heap, null);
+  }
+
+  /**
+   * Create a new handler that takes the link tables of the processes from the given plan.
+   * 
+   * @param heap
+   *          where arguments are read from and results are written to.
+   * @param plan
+   *          the execution plan of the in-zoomed process, or <code>null</code> to analyze the links on every call.
+   */
+  public OPPInZoomedProcessArgumentHandler(OPPInZoomedProcessInstanceHeap heap, OPPInZoomedProcessExecutionPlan plan) {
     this.heap = heap;
+    this.plan = plan;
   }
 
   public void loadInstanceArguments(OPPProcess process, OPPProcessInstance instance) {
     Map<String, OPPArgument> namedArguments = Maps.newHashMap();
     List<OPPArgument> anonymousArguments = Lists.newArrayList();
 
-    catalogueArguments(OPPProcessExtensions.findIncomingDataLinks(process), namedArguments, anonymousArguments);
+    catalogueArguments(findIncomingDataLinks(process), namedArguments, anonymousArguments);
     logFiner("Found {0} anonymous arguments and {1} named arguments.", anonymousArguments.size(), namedArguments.size());
 
     List<String> availableParametersNames = instance.getIncomingParameters().stream().map(param -> param.getName()).collect(Collectors.toList());
@@ -92,7 +106,7 @@ public class OPPInZoomedProcessArgumentHandler {
     Map<String, OPPArgument> namedResults = Maps.newHashMap();
     List<OPPArgument> anonymousResults = Lists.newArrayList();
 
-    catalogueArguments(OPPProcessExtensions.findOutgoingDataLinks(process), namedResults, anonymousResults);
+    catalogueArguments(findOutgoingDataLinks(process), namedResults, anonymousResults);
 
     logFiner("Found {0} anonymous results and {1} named results.", anonymousResults.size(), namedResults.size());
 
@@ -124,6 +138,18 @@ public class OPPInZoomedProcessArgumentHandler {
     }
   }
 
+  private Collection<OPPProceduralLink> findIncomingDataLinks(OPPProcess process) {
+    if (plan != null)
+      return plan.getProcessPlan(process).getIncomingDataLinks();
+    return OPPProcessExtensions.findIncomingDataLinks(process);
+  }
+
+  private Collection<OPPProceduralLink> findOutgoingDataLinks(OPPProcess process) {
+    if (plan != null)
+      return plan.getProcessPlan(process).getOutgoingDataLinks();
+    return OPPProcessExtensions.findOutgoingDataLinks(process);
+  }
+
   private void catalogueArguments(Collection<OPPProceduralLink> links, Map<String, OPPArgument> namedArguments, List<OPPArgument> anonymousArguments) {
     for (OPPProceduralLink link : links) {
       OPPArgument argument = new OPPArgument(OPPLinkExtensions.getObject(link), link.getKind() == OPPProceduralLinkKind.CONS_RES);
@@ -9,13 +9,13 @@ package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
 import static com.vainolo.phd.opp.utilities.OPPLogger.*;
 import static com.vainolo.phd.opp.utilities.OPPStrings.*;
 
-import java.util.Collection;
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -24,20 +24,17 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
-import com.vainolo.phd.opp.utilities.OPPConstants;
 import com.vainolo.phd.opp.utilities.analysis.OPPLinkExtensions;
-import com.vainolo.phd.opp.utilities.analysis.OPPOPDExtensions;
-import com.vainolo.phd.opp.utilities.analysis.OPPObjectExtensions;
-import com.vainolo.phd.opp.utilities.analysis.OPPProcessExtensions;
 import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
-import com.vainolo.phd.opp.interpreter.OPPInterpreter;
+import com.vainolo.phd.opp.interpreter.OPPExecutionSession;
+import com.vainolo.phd.opp.interpreter.OPPInlineProcessInstance;
 import com.vainolo.phd.opp.interpreter.OPPObjectInstanceValueAnalyzer;
 import com.vainolo.phd.opp.interpreter.OPPParameter;
 import com.vainolo.phd.opp.interpreter.OPPProcessExecutionResult;
 import com.vainolo.phd.opp.interpreter.OPPProcessInstance;
 import com.vainolo.phd.opp.interpreter.OPPProcessInstanceFactory;
 import com.vainolo.phd.opp.interpreter.OPPRuntimeException;
-import com.vainolo.phd.opp.interpreter.inzoomedprocessinstance.OPPInZoomedProcessInstanceHeap.OPMHeapObserver;
+import com.vainolo.phd.opp.interpreter.OPPScheduler;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 import com.vainolo.phd.opp.model.OPPObject;
 import com.vainolo.phd.opp.model.OPPProceduralLink;
@@ -47,15 +44,18 @@ import com.vainolo.phd.opp.model.OPPState;
 public class OPPInZoomedProcessExecutableInstance extends OPPAbstractProcessInstance implements OPPProcessInstance {
 
   private final OPPObjectProcessDiagram opd;
+  private final OPPInZoomedProcessExecutionPlan plan;
   private OPPInZoomedProcessInstanceHeap heap;
   private OPPObjectInstanceValueAnalyzer valueAnalyzer;
   private OPPInZoomedProcessArgumentHandler argumentHandler;
-  private OPMHeapObserver heapObserver;
+  private OPPInZoomedProcessHeapJournal changes;
   private IsProcessReady isReadyPred;
   private mustSkipProcess mustSkipPred;
   private com.google.common.base.Predicate<OPPProcess> isReadyAndNotSkipPred;
-  private ExecutorCompletionService<OPPProcessExecutionResult> completionService;
-  private List<OPPProcess> P_waiting;
+  private OPPScheduler scheduler;
+  private CompletionService<OPPProcessExecutionResult> completionService;
+  private Queue<OPPProcessExecutionResult> inlineResults;
+  private OPPInZoomedProcessReadySet P_waiting;
   private Set<OPPProcess> P_ready;
   private Map<OPPProcessInstance, OPPProcess> P_executing;
   private OPPInZoomedProcessIntanceProgramCounter pc;
@@ -68,41 +68,68 @@ public class OPPInZoomedProcessExecutableInstance extends OPPAbstractProcessInst
    * 
    * @param opd
    *          the {@link OPPObjectProcessDiagram} for this instance.
+   * @param session
+   *          the session where this instance is executed.
    */
-  public OPPInZoomedProcessExecutableInstance(OPPObjectProcessDiagram opd) {
+  public OPPInZoomedProcessExecutableInstance(OPPObjectProcessDiagram opd, OPPExecutionSession session) {
+    setSession(session);
     this.opd = opd;
+    this.plan = OPPInZoomedProcessExecutionPlanCache.INSTANCE.getPlan(opd);
     this.valueAnalyzer = new OPPObjectInstanceValueAnalyzer();
-    this.heap = new OPPInZoomedProcessInstanceHeap();
-    this.argumentHandler = new OPPInZoomedProcessArgumentHandler(heap);
-    this.heapObserver = new OPMHeapObserver();
-    this.heap.addObserver(heapObserver);
+    this.heap = new OPPInZoomedProcessInstanceHeap(session.getGlobalHeap(), plan);
+    this.argumentHandler = new OPPInZoomedProcessArgumentHandler(heap, plan);
+    this.changes = new OPPInZoomedProcessHeapJournal(plan.getSlotCount());
+    this.heap.addListener(changes);
+    this.P_waiting = new OPPInZoomedProcessReadySet(plan, link -> IS_READY.isLinkSourceReady(link));
+    this.heap.addListener(P_waiting);
     this.isReadyPred = new IsProcessReady();
     this.mustSkipPred = new mustSkipProcess();
     this.isReadyAndNotSkipPred = Predicates.and(isReadyPred, Predicates.not(mustSkipPred));
-    this.completionService = new ExecutorCompletionService<>(Executors.newCachedThreadPool());
   }
 
   @Override
   protected void preExecution() {
     super.preExecution();
-    getHeap().initializeVariablesWithArgumentValues(getOpd());
+    getHeap().initializeVariablesWithArgumentValues(plan.getParameters());
   }
 
   @Override
   protected void postExecution() {
-    getHeap().exportVariableValuesToArguments(getOpd());
+    getHeap().exportVariableValuesToArguments(plan.getParameters());
     super.postExecution();
   }
 
-  private OPPProcessInstance createAndExecuteInstance(OPPProcess process) {
-    OPPProcessInstance instance = OPPProcessInstanceFactory.createExecutableInstance(process);
+  /**
+   * Create an instance of the process and execute it. {@link OPPInlineProcessInstance}s and pure processes whose
+   * results are cached are executed immediately on the current thread and their results are queued, all other instances
+   * are submitted to the scheduler. In both cases the results are handled in the main loop of {@link #executing()}, one
+   * at a time.
+   */
+  private OPPProcessInstance createAndExecuteInstance(OPPProcess process) throws Exception {
+    OPPProcessInstance instance = OPPProcessInstanceFactory.createExecutableInstance(process, getSession());
     argumentHandler.loadInstanceArguments(process, instance);
-    completionService.submit(instance);
+    if (instance instanceof OPPInlineProcessInstance || hasCachedResults(instance)) {
+      inlineResults.add(instance.call());
+    } else {
+      completionService.submit(instance);
+    }
     return instance;
   }
 
+  private boolean hasCachedResults(OPPProcessInstance instance) {
+    return instance instanceof OPPPureProcessExecutableInstance && ((OPPPureProcessExecutableInstance) instance).loadCachedResults();
+  }
+
+  private OPPProcessExecutionResult takeExecutionResult() throws InterruptedException, ExecutionException {
+    OPPProcessExecutionResult result = inlineResults.poll();
+    if (result == null) {
+      result = scheduler.take(completionService).get();
+    }
+    return result;
+  }
+
   private void calculateNextProcesses() {
-    List<OPPProcess> nextProcesses = pc.getNextProcesses(P_waiting, P_executing.values());
+    List<OPPProcess> nextProcesses = pc.getNextProcesses(P_waiting.getWaiting(), P_executing.values());
     if (nextProcesses.size() > 0) {
       List<OPPProcess> P_skipped = nextProcesses.stream().filter(MUST_SKIP).collect(Collectors.toList());
       if (P_skipped.size() != nextProcesses.size()) {
@@ -114,13 +141,12 @@ public class OPPInZoomedProcessExecutableInstance extends OPPAbstractProcessInst
       }
     }
 
-    P_ready.addAll(P_waiting.stream().filter(IS_READY).collect(Collectors.toSet()));
-    P_waiting.removeAll(P_ready);
+    P_ready.addAll(P_waiting.removeReady());
   }
 
-  private boolean executeReadyProcesses() {
+  private boolean executeReadyProcesses() throws Exception {
     for (OPPProcess process : P_ready) {
-      if (process.getName().equals("Process Stopping") || process.getName().equals("Stop Process")) {
+      if (plan.getProcessPlan(process).isStopProcess()) {
         return true;
       }
     }
@@ -135,15 +161,18 @@ public class OPPInZoomedProcessExecutableInstance extends OPPAbstractProcessInst
 
   @Override
   protected void executing() throws Exception {
-    P_waiting = Lists.newArrayList();
+    P_waiting.clear();
     P_ready = Sets.newHashSet();
     P_executing = Maps.newHashMap();
+    scheduler = getSession().getScheduler();
+    completionService = scheduler.createCompletionService();
+    inlineResults = new ArrayDeque<>();
     OPPProcess p_inv = null;
 
     ExecutionMode executionMode = ExecutionMode.NATURAL_ORDER;
 
-    getHeap().initializeVariablesWithLiterals(OPPOPDExtensions.getInZoomedProcess(getOpd()));
-    pc = new OPPInZoomedProcessIntanceProgramCounter(getOpd());
+    getHeap().initializeVariablesWithLiterals(plan.getInnerObjects());
+    pc = new OPPInZoomedProcessIntanceProgramCounter(plan);
 
     pc.setPC(pc.getNextPC());
 
@@ -151,14 +180,13 @@ public class OPPInZoomedProcessExecutableInstance extends OPPAbstractProcessInst
     executeReadyProcesses();
 
     while (!P_executing.isEmpty()) {
-      if (OPPInterpreter.INSTANCE.isStopped()) {
+      if (getSession().isStopped()) {
         logInfo("Process execution has been stopped. Returning.");
         return;
       }
       try {
-        heapObserver.clear();
-        Future<OPPProcessExecutionResult> executionResult = completionService.take();
-        OPPProcessInstance executedInstance = executionResult.get().getInstance();
+        changes.startStep();
+        OPPProcessInstance executedInstance = takeExecutionResult().getInstance();
         OPPProcess executedProcess = P_executing.get(executedInstance);
         P_executing.remove(executedInstance);
         argumentHandler.extractResultsToVariables(executedProcess, executedInstance);
@@ -212,24 +240,28 @@ public class OPPInZoomedProcessExecutableInstance extends OPPAbstractProcessInst
 
     if (P_waiting.size() > 0) {
       logInfo("Finished execution of {0} with {1} waiting processes.", getName(), P_waiting.size());
-      OPPInterpreter.INSTANCE.stopExecution();
+      getSession().stop();
     }
   }
 
+  /**
+   * Check if one of the objects set in the current step satisfies a return link of the process.
+   */
   private boolean shouldReturn() {
-    OPPProcess mainProcess = OPPOPDExtensions.getInZoomedProcess(getOpd());
-    for (OPPObject changedObject : heapObserver.getObjectsWithNewValue()) {
-      if (heap.getVariable(changedObject) != null) {
-        Collection<OPPProceduralLink> outgoingAgentLinks = OPPObjectExtensions.findOutgoingAgentLinks(changedObject);
-        for (OPPProceduralLink link : outgoingAgentLinks) {
-          if (link.getTarget().equals(mainProcess)) {
-            if (link.getSource() instanceof OPPObject) {
+    for (int i = 0; i < changes.size(); i++) {
+      OPPObject changedObject = changes.getObject(i);
+      List<OPPProceduralLink> returnLinks = plan.getObjectPlan(changedObject).getReturnLinks();
+      if (returnLinks.isEmpty())
+        continue;
+      OPPObjectInstance value = heap.getVariable(changedObject);
+      if (value != null) {
+        for (OPPProceduralLink link : returnLinks) {
+          if (link.getSource() instanceof OPPObject) {
+            return true;
+          } else if (link.getSource() instanceof OPPState) {
+            OPPState state = OPPState.class.cast(link.getSource());
+            if (valueAnalyzer.isObjectInstanceInState(value, state)) {
               return true;
-            } else if (link.getSource() instanceof OPPState) {
-              OPPState state = OPPState.class.cast(link.getSource());
-              if (valueAnalyzer.isObjectInstanceInState(heap.getVariable(changedObject), state)) {
-                return true;
-              }
             }
           }
         }
@@ -240,34 +272,28 @@ public class OPPInZoomedProcessExecutableInstance extends OPPAbstractProcessInst
 
   private Set<OPPProcess> findInvokedAndNotSkippedProcesses(OPPProcess executedProcess) {
     Set<OPPProcess> invokedProcesses = Sets.newHashSet();
-    for (OPPObject changedObject : heapObserver.getObjectsWithNewValue()) {
-      if (heap.getVariable(changedObject) != null)
-        invokedProcesses.addAll(findProcessesToInvokeAfterObjectHasChanged(changedObject));
-    }
-    for (OPPProceduralLink outgoingAgentLink : OPPProcessExtensions.findOutgoingAgentLinks(executedProcess)) {
-      if (outgoingAgentLink.getSubKinds().contains("e")) {
-        // if (outgoingAgentLink.getCenterDecoration().contains("e")) {
-        invokedProcesses.add((OPPProcess) outgoingAgentLink.getTarget());
-      }
+    for (int i = 0; i < changes.size(); i++) {
+      addProcessesToInvokeAfterObjectHasChanged(changes.getObject(i), invokedProcesses);
     }
+    invokedProcesses.addAll(plan.getProcessPlan(executedProcess).getInvokedProcesses());
 
     invokedProcesses = Sets.filter(invokedProcesses, isReadyAndNotSkipPred);
     logFine("Found {0} invoked processes.", invokedProcesses.size());
     return invokedProcesses;
   }
 
-  private Set<OPPProcess> findProcessesToInvokeAfterObjectHasChanged(OPPObject object) {
-    Set<OPPProcess> ret = Sets.newHashSet();
+  private void addProcessesToInvokeAfterObjectHasChanged(OPPObject object, Set<OPPProcess> invokedProcesses) {
+    List<OPPProceduralLink> eventLinks = plan.getObjectPlan(object).getOutgoingEventLinks();
+    if (eventLinks.isEmpty())
+      return;
     OPPObjectInstance value = getHeap().getVariable(object);
     if (value == null)
-      return ret;
-    Collection<OPPProceduralLink> outgoingEventLinks = OPPObjectExtensions.findOutgoingEventLinks(object);
-    for (OPPProceduralLink eventLink : outgoingEventLinks) {
+      return;
+    for (OPPProceduralLink eventLink : eventLinks) {
       if (objectValueTriggersEvent(eventLink, value)) {
-        ret.add(OPPLinkExtensions.getProcess(eventLink));
+        invokedProcesses.add(OPPLinkExtensions.getProcess(eventLink));
       }
     }
-    return ret;
   }
 
   private boolean objectValueTriggersEvent(OPPProceduralLink link, OPPObjectInstance objectInstance) {
@@ -293,17 +319,12 @@ public class OPPInZoomedProcessExecutableInstance extends OPPAbstractProcessInst
 
   @Override
   public List<OPPParameter> getIncomingParameters() {
-    return OPPOPDExtensions.findIncomingParameters(getOpd()).stream().map(o -> new OPPParameter(o.getName())).collect(Collectors.toList());
+    return Lists.newArrayList(plan.getIncomingParameters());
   }
 
   @Override
   public List<OPPParameter> getOutgoingParameters() {
-    List<OPPParameter> outgoingParameters = Lists.newArrayList();
-    Collection<OPPObject> parameters = OPPOPDExtensions.findOutgoingParameters(getOpd());
-    for (OPPObject object : parameters) {
-      outgoingParameters.add(new OPPParameter(object.getName()));
-    }
-    return outgoingParameters;
+    return Lists.newArrayList(plan.getOutgoingParameters());
   }
 
   @Override
@@ -327,17 +348,15 @@ public class OPPInZoomedProcessExecutableInstance extends OPPAbstractProcessInst
   class IsReadyPredicate extends ExecutablePredicateCommons implements Predicate<OPPProcess> {
     @Override
     public boolean test(OPPProcess process) {
-      for (OPPProceduralLink link : OPPProcessExtensions.findIncomingDataLinks(process)) {
+      OPPInZoomedProcessExecutionPlan.OPPProcessPlan processPlan = plan.getProcessPlan(process);
+      for (OPPProceduralLink link : processPlan.getIncomingDataLinks()) {
         if (!isLinkSourceReady(link)) {
           logFine(PROCESS_NOT_READY, process.getName(), OPPLinkExtensions.getSourceObject(link).getName());
           return false;
         }
       }
 
-      for (OPPProceduralLink link : OPPProcessExtensions.findIncomingAgentLinks(process)) {
-        if (link.getSubKinds().contains("e"))
-          // if (link.getTargetDecoration() != null && link.getTargetDecoration().contains("e"))
-          continue;
+      for (OPPProceduralLink link : processPlan.getIncomingNonEventAgentLinks()) {
         if (!isLinkSourceReady(link)) {
           logFine(PROCESS_NOT_READY, process.getName(), OPPLinkExtensions.getSourceObject(link).getName());
           return false;
@@ -351,8 +370,8 @@ public class OPPInZoomedProcessExecutableInstance extends OPPAbstractProcessInst
   class MustSkipPredicate extends ExecutablePredicateCommons implements Predicate<OPPProcess> {
     @Override
     public boolean test(OPPProcess process) {
-      for (OPPProceduralLink link : OPPProcessExtensions.findIncomingProceduralLinks(process)) {
-        if (link.getSubKinds().contains(OPPConstants.OPP_CONDITIONAL_LINK_SUBKIND) && !isLinkSourceReady(link)) {
+      for (OPPProceduralLink link : plan.getProcessPlan(process).getConditionalLinks()) {
+        if (!isLinkSourceReady(link)) {
           return true;
         }
       }
@@ -366,7 +385,7 @@ public class OPPInZoomedProcessExecutableInstance extends OPPAbstractProcessInst
   class IsProcessReady extends ExecutablePredicateCommons implements com.google.common.base.Predicate<OPPProcess> {
     @Override
     public boolean apply(OPPProcess process) {
-      for (OPPProceduralLink link : OPPProcessExtensions.findIncomingDataLinks(process)) {
+      for (OPPProceduralLink link : plan.getProcessPlan(process).getIncomingDataLinks()) {
         if (!isLinkSourceReady(link)) {
           logFine(PROCESS_NOT_READY, process.getName(), OPPLinkExtensions.getSourceObject(link).getName());
           return false;
@@ -379,8 +398,8 @@ public class OPPInZoomedProcessExecutableInstance extends OPPAbstractProcessInst
   class mustSkipProcess extends ExecutablePredicateCommons implements com.google.common.base.Predicate<OPPProcess> {
     @Override
     public boolean apply(OPPProcess process) {
-      for (OPPProceduralLink link : OPPProcessExtensions.findIncomingProceduralLinks(process)) {
-        if (link.getSubKinds().contains(OPPConstants.OPP_CONDITIONAL_LINK_SUBKIND) && !isLinkSourceReady(link)) {
+      for (OPPProceduralLink link : plan.getProcessPlan(process).getConditionalLinks()) {
+        if (!isLinkSourceReady(link)) {
           return true;
         }
       }
@@ -423,4 +442,4 @@ public class OPPInZoomedProcessExecutableInstance extends OPPAbstractProcessInst
   enum ExecutionMode {
     NATURAL_ORDER, EVENT;
   }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,417 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
+
+import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+import com.vainolo.phd.opp.interpreter.OPPParameter;
+import com.vainolo.phd.opp.model.OPPContainer;
+import com.vainolo.phd.opp.model.OPPNode;
+import com.vainolo.phd.opp.model.OPPObject;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+import com.vainolo.phd.opp.model.OPPProceduralLink;
+import com.vainolo.phd.opp.model.OPPProcess;
+import com.vainolo.phd.opp.utilities.OPPConstants;
+import com.vainolo.phd.opp.utilities.analysis.OPPContainerExtensions;
+import com.vainolo.phd.opp.utilities.analysis.OPPLinkExtensions;
+import com.vainolo.phd.opp.utilities.analysis.OPPOPDExtensions;
+import com.vainolo.phd.opp.utilities.analysis.OPPObjectExtensions;
+import com.vainolo.phd.opp.utilities.analysis.OPPProcessExtensions;
+
+/**
+ * Immutable execution plan of an in-zoomed {@link OPPObjectProcessDiagram}. All the graph analysis needed to execute
+ * the diagram (process ordering, link tables, event links, etc.) is done once when the plan is compiled, so that
+ * executing the diagram only needs to look up the precomputed values.
+ *
+ * Plans should be fetched using {@link OPPInZoomedProcessExecutionPlanCache} instead of compiling them directly.
+ */
+public class OPPInZoomedProcessExecutionPlan {
+
+  private final OPPObjectProcessDiagram opd;
+  private final long timeStamp;
+  private final OPPProcess inZoomedProcess;
+  private final boolean pure;
+  private final List<OPPProcess> sortedProcesses;
+  private final int[] bandsY;
+  private final List<List<OPPProcess>> bands;
+  private final Map<OPPProcess, OPPProcessPlan> processPlans;
+  private final Map<OPPObject, OPPObjectPlan> objectPlans;
+  private final Map<OPPProcess, OPPProcessPlan> missedProcessPlans = new ConcurrentHashMap<>();
+  private final Map<OPPObject, OPPObjectPlan> missedObjectPlans = new ConcurrentHashMap<>();
+  private final Map<OPPObject, OPPObjectSlot> slots;
+  private final List<OPPObject> innerObjects;
+  private final List<OPPObject> parameters;
+  private final List<OPPParameter> incomingParameters;
+  private final List<OPPParameter> outgoingParameters;
+
+  private OPPInZoomedProcessExecutionPlan(OPPObjectProcessDiagram opd, long timeStamp) {
+    this.opd = opd;
+    this.timeStamp = timeStamp;
+    this.inZoomedProcess = OPPOPDExtensions.getInZoomedProcess(opd);
+    this.pure = OPPProcessExtensions.isPure(inZoomedProcess);
+
+    OPPContainerExtensions contExt = new OPPContainerExtensions();
+    this.sortedProcesses = ImmutableList.copyOf(new OPPProcessOrdering().sortedCopy(contExt.getProcesses(inZoomedProcess)));
+
+    List<Integer> bandsYList = Lists.newArrayList();
+    List<List<OPPProcess>> bandsList = Lists.newArrayList();
+    List<OPPProcess> currentBand = null;
+    for (OPPProcess process : sortedProcesses) {
+      if (currentBand == null || bandsYList.get(bandsYList.size() - 1) != process.getY()) {
+        currentBand = Lists.newArrayList();
+        bandsYList.add(process.getY());
+        bandsList.add(currentBand);
+      }
+      currentBand.add(process);
+    }
+    this.bandsY = new int[bandsYList.size()];
+    ImmutableList.Builder<List<OPPProcess>> bandsBuilder = ImmutableList.builder();
+    for (int i = 0; i < bandsY.length; i++) {
+      bandsY[i] = bandsYList.get(i);
+      bandsBuilder.add(ImmutableList.copyOf(bandsList.get(i)));
+    }
+    this.bands = bandsBuilder.build();
+
+    ImmutableMap.Builder<OPPProcess, OPPProcessPlan> processPlansBuilder = ImmutableMap.builder();
+    for (OPPProcess process : sortedProcesses) {
+      processPlansBuilder.put(process, new OPPProcessPlan(process));
+    }
+    this.processPlans = processPlansBuilder.build();
+
+    Map<OPPObject, OPPObjectPlan> objectPlansMap = Maps.newLinkedHashMap();
+    collectObjectPlans(opd, objectPlansMap);
+    this.objectPlans = ImmutableMap.copyOf(objectPlansMap);
+
+    Map<OPPObject, OPPObjectSlot> slotsMap = Maps.newLinkedHashMap();
+    for (OPPObject object : objectPlansMap.keySet()) {
+      createSlot(object, slotsMap);
+    }
+    this.slots = ImmutableMap.copyOf(slotsMap);
+
+    this.innerObjects = ImmutableList.copyOf(OPPContainerExtensions.getObjects(inZoomedProcess));
+    this.parameters = ImmutableList.copyOf(OPPOPDExtensions.getParameters(opd));
+    this.incomingParameters = createParameters(OPPOPDExtensions.findIncomingParameters(opd));
+    this.outgoingParameters = createParameters(OPPOPDExtensions.findOutgoingParameters(opd));
+  }
+
+  /**
+   * Compile a new execution plan for an in-zoomed {@link OPPObjectProcessDiagram}.
+   *
+   * @param opd
+   *          the diagram to compile.
+   * @param timeStamp
+   *          the time stamp of the file from which the diagram was loaded.
+   * @return the compiled plan.
+   */
+  public static OPPInZoomedProcessExecutionPlan compile(OPPObjectProcessDiagram opd, long timeStamp) {
+    return new OPPInZoomedProcessExecutionPlan(opd, timeStamp);
+  }
+
+  private void collectObjectPlans(OPPContainer container, Map<OPPObject, OPPObjectPlan> objectPlansMap) {
+    for (OPPNode node : container.getNodes()) {
+      if (node instanceof OPPObject) {
+        objectPlansMap.put((OPPObject) node, new OPPObjectPlan((OPPObject) node));
+      }
+      if (node instanceof OPPContainer) {
+        collectObjectPlans((OPPContainer) node, objectPlansMap);
+      }
+    }
+  }
+
+  private OPPObjectSlot createSlot(OPPObject object, Map<OPPObject, OPPObjectSlot> slotsMap) {
+    OPPObjectSlot slot = slotsMap.get(object);
+    if (slot == null) {
+      OPPObject parent = OPPObjectExtensions.findParent(object);
+      OPPObjectSlot parentSlot = parent == null ? null : createSlot(parent, slotsMap);
+      slot = new OPPObjectSlot(object, slotsMap.size(), parentSlot);
+      slotsMap.put(object, slot);
+    }
+    return slot;
+  }
+
+  private List<OPPParameter> createParameters(Collection<OPPObject> objects) {
+    ImmutableList.Builder<OPPParameter> builder = ImmutableList.builder();
+    for (OPPObject object : objects) {
+      builder.add(new OPPParameter(object.getName()));
+    }
+    return builder.build();
+  }
+
+  public OPPObjectProcessDiagram getOpd() {
+    return opd;
+  }
+
+  public long getTimeStamp() {
+    return timeStamp;
+  }
+
+  public OPPProcess getInZoomedProcess() {
+    return inZoomedProcess;
+  }
+
+  /**
+   * @return <code>true</code> if the in-zoomed process is marked as pure, so its results can be cached.
+   * @see OPPProcessExtensions#isPure(OPPProcess)
+   */
+  public boolean isPure() {
+    return pure;
+  }
+
+  /**
+   * @return the processes inside the in-zoomed process, sorted by their Y coordinate.
+   */
+  public List<OPPProcess> getSortedProcesses() {
+    return sortedProcesses;
+  }
+
+  /**
+   * @return the Y coordinate of the first band that starts after the given Y coordinate, or {@link Integer#MAX_VALUE}
+   *         if there is no such band.
+   */
+  public int getNextBandY(int y) {
+    int index = Arrays.binarySearch(bandsY, y);
+    index = index >= 0 ? index + 1 : -index - 1;
+    return index < bandsY.length ? bandsY[index] : Integer.MAX_VALUE;
+  }
+
+  /**
+   * @return the processes whose Y coordinate is exactly the given Y coordinate, or an empty list if there are none.
+   */
+  public List<OPPProcess> getBand(int y) {
+    int index = Arrays.binarySearch(bandsY, y);
+    return index >= 0 ? bands.get(index) : Collections.<OPPProcess> emptyList();
+  }
+
+  /**
+   * @return the precomputed information of a process inside the in-zoomed process. Processes that were not compiled
+   *         into the plan are analyzed once, logged and kept with the plan.
+   */
+  public OPPProcessPlan getProcessPlan(OPPProcess process) {
+    OPPProcessPlan processPlan = processPlans.get(process);
+    if (processPlan == null) {
+      processPlan = missedProcessPlans.computeIfAbsent(process, p -> {
+        logWarning("Process {0} is not in the execution plan of {1}.", p.getName(), opd.getName());
+        return new OPPProcessPlan(p);
+      });
+    }
+    return processPlan;
+  }
+
+  /**
+   * @return the precomputed information of an object in the diagram. Objects that were not compiled into the plan are
+   *         analyzed once, logged and kept with the plan.
+   */
+  public OPPObjectPlan getObjectPlan(OPPObject object) {
+    OPPObjectPlan objectPlan = objectPlans.get(object);
+    if (objectPlan == null) {
+      objectPlan = missedObjectPlans.computeIfAbsent(object, o -> {
+        logWarning("Object {0} is not in the execution plan of {1}.", o.getName(), opd.getName());
+        return new OPPObjectPlan(o);
+      });
+    }
+    return objectPlan;
+  }
+
+  /**
+   * @return the variable slot of an object in the diagram, or <code>null</code> if the object is not in the diagram.
+   */
+  OPPObjectSlot getSlot(OPPObject object) {
+    return slots.get(object);
+  }
+
+  /**
+   * @return the number of variable slots needed by the objects of the diagram.
+   */
+  public int getSlotCount() {
+    return slots.size();
+  }
+
+  /**
+   * @return the objects directly inside the in-zoomed process.
+   */
+  public List<OPPObject> getInnerObjects() {
+    return innerObjects;
+  }
+
+  /**
+   * @return the objects outside of the in-zoomed process which are not part of other objects.
+   */
+  public List<OPPObject> getParameters() {
+    return parameters;
+  }
+
+  public List<OPPParameter> getIncomingParameters() {
+    return incomingParameters;
+  }
+
+  public List<OPPParameter> getOutgoingParameters() {
+    return outgoingParameters;
+  }
+
+  /**
+   * Precomputed link tables of a process that is executed inside the in-zoomed process.
+   */
+  public class OPPProcessPlan {
+    private final OPPProcess process;
+    private final List<OPPProceduralLink> incomingDataLinks;
+    private final List<OPPProceduralLink> incomingNonEventAgentLinks;
+    private final List<OPPProceduralLink> conditionalLinks;
+    private final List<OPPProceduralLink> outgoingDataLinks;
+    private final List<OPPProcess> invokedProcesses;
+    private final boolean stopProcess;
+
+    OPPProcessPlan(OPPProcess process) {
+      this.process = process;
+      this.incomingDataLinks = ImmutableList.copyOf(OPPProcessExtensions.findIncomingDataLinks(process));
+
+      ImmutableList.Builder<OPPProceduralLink> agentLinks = ImmutableList.builder();
+      for (OPPProceduralLink link : OPPProcessExtensions.findIncomingAgentLinks(process)) {
+        if (!link.getSubKinds().contains(OPPConstants.OPP_EVENT_LINK_SUBKIND))
+          agentLinks.add(link);
+      }
+      this.incomingNonEventAgentLinks = agentLinks.build();
+
+      ImmutableList.Builder<OPPProceduralLink> conditional = ImmutableList.builder();
+      for (OPPProceduralLink link : OPPProcessExtensions.findIncomingProceduralLinks(process)) {
+        if (link.getSubKinds().contains(OPPConstants.OPP_CONDITIONAL_LINK_SUBKIND))
+          conditional.add(link);
+      }
+      this.conditionalLinks = conditional.build();
+
+      this.outgoingDataLinks = ImmutableList.copyOf(OPPProcessExtensions.findOutgoingDataLinks(process));
+
+      ImmutableList.Builder<OPPProcess> invoked = ImmutableList.builder();
+      for (OPPProceduralLink link : OPPProcessExtensions.findOutgoingAgentLinks(process)) {
+        if (link.getSubKinds().contains(OPPConstants.OPP_EVENT_LINK_SUBKIND))
+          invoked.add((OPPProcess) link.getTarget());
+      }
+      this.invokedProcesses = invoked.build();
+
+      this.stopProcess = "Process Stopping".equals(process.getName()) || "Stop Process".equals(process.getName());
+    }
+
+    public OPPProcess getProcess() {
+      return process;
+    }
+
+    public List<OPPProceduralLink> getIncomingDataLinks() {
+      return incomingDataLinks;
+    }
+
+    /**
+     * @return the incoming agent links of the process, excluding event links which do not affect readiness.
+     */
+    public List<OPPProceduralLink> getIncomingNonEventAgentLinks() {
+      return incomingNonEventAgentLinks;
+    }
+
+    public List<OPPProceduralLink> getConditionalLinks() {
+      return conditionalLinks;
+    }
+
+    public boolean isConditional() {
+      return !conditionalLinks.isEmpty();
+    }
+
+    public List<OPPProceduralLink> getOutgoingDataLinks() {
+      return outgoingDataLinks;
+    }
+
+    /**
+     * @return the processes invoked by an outgoing event link of this process.
+     */
+    public List<OPPProcess> getInvokedProcesses() {
+      return invokedProcesses;
+    }
+
+    public boolean isStopProcess() {
+      return stopProcess;
+    }
+  }
+
+  /**
+   * Precomputed link tables of an object in the diagram.
+   */
+  public class OPPObjectPlan {
+    private final OPPObject object;
+    private final OPPObject parent;
+    private final List<OPPObject> parts;
+    private final List<OPPProceduralLink> outgoingEventLinks;
+    private final List<OPPProceduralLink> returnLinks;
+
+    OPPObjectPlan(OPPObject object) {
+      this.object = object;
+      this.parent = OPPObjectExtensions.findParent(object);
+      this.parts = ImmutableList.copyOf(OPPObjectExtensions.getParts(object));
+      this.outgoingEventLinks = ImmutableList.copyOf(OPPObjectExtensions.findOutgoingEventLinks(object));
+
+      ImmutableList.Builder<OPPProceduralLink> returns = ImmutableList.builder();
+      for (OPPProceduralLink link : OPPObjectExtensions.findOutgoingAgentLinks(object)) {
+        if (link.getTarget().equals(inZoomedProcess))
+          returns.add(link);
+      }
+      this.returnLinks = returns.build();
+    }
+
+    public OPPObject getObject() {
+      return object;
+    }
+
+    /**
+     * @return the object that this object is part of, or <code>null</code> if this object is not a part.
+     */
+    public OPPObject getParent() {
+      return parent;
+    }
+
+    public List<OPPObject> getParts() {
+      return parts;
+    }
+
+    public List<OPPProceduralLink> getOutgoingEventLinks() {
+      return outgoingEventLinks;
+    }
+
+    /**
+     * @return the outgoing agent links from the object (or its states) to the in-zoomed process, which cause the
+     *         execution of the in-zoomed process to return.
+     */
+    public List<OPPProceduralLink> getReturnLinks() {
+      return returnLinks;
+    }
+
+    /**
+     * @return the processes that are the targets of the outgoing event links.
+     */
+    public List<OPPProcess> getEventTargets() {
+      List<OPPProcess> targets = Lists.newArrayList();
+      for (OPPProceduralLink link : outgoingEventLinks) {
+        targets.add(OPPLinkExtensions.getProcess(link));
+      }
+      return targets;
+    }
+  }
+
+  class OPPProcessOrdering extends Ordering<OPPProcess> {
+    @Override
+    public int compare(OPPProcess arg1, OPPProcess arg2) {
+      return arg1.getY() - arg2.getY();
+    }
+  }
+}
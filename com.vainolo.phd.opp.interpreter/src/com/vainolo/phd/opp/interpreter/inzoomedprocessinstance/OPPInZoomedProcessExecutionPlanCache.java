@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
+
+import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+
+/**
+ * Cache of {@link OPPInZoomedProcessExecutionPlan}s. The plan of a diagram is stored in an {@link Adapter} attached to
+ * the {@link OPPObjectProcessDiagram}, so the plan is collected together with the diagram, and is compiled again if the
+ * time stamp of the resource from which the diagram was loaded is changed.
+ */
+public enum OPPInZoomedProcessExecutionPlanCache {
+  INSTANCE;
+
+  private final AtomicInteger generation = new AtomicInteger();
+
+  /**
+   * Get the execution plan of an in-zoomed {@link OPPObjectProcessDiagram}, compiling it if needed. Concurrent calls
+   * for the same diagram compile the plan only once.
+   *
+   * @param opd
+   *          an in-zoomed diagram.
+   * @return the execution plan of the diagram.
+   */
+  public OPPInZoomedProcessExecutionPlan getPlan(OPPObjectProcessDiagram opd) {
+    OPPExecutionPlanAdapter adapter = getAdapter(opd, true);
+    long timeStamp = getTimeStamp(opd);
+    int currentGeneration = generation.get();
+    synchronized (adapter) {
+      OPPInZoomedProcessExecutionPlan plan = adapter.plan;
+      if (plan == null || plan.getTimeStamp() != timeStamp || adapter.generation != currentGeneration) {
+        logFine("Compiling execution plan for {0}.", opd.getName());
+        plan = OPPInZoomedProcessExecutionPlan.compile(opd, timeStamp);
+        adapter.plan = plan;
+        adapter.generation = currentGeneration;
+      }
+      return plan;
+    }
+  }
+
+  /**
+   * Remove the execution plan of an {@link OPPObjectProcessDiagram} from the cache.
+   */
+  public void invalidate(OPPObjectProcessDiagram opd) {
+    OPPExecutionPlanAdapter adapter = getAdapter(opd, false);
+    if (adapter != null) {
+      synchronized (adapter) {
+        adapter.plan = null;
+      }
+    }
+  }
+
+  /**
+   * Invalidate the plans of all the diagrams. Plans are compiled again the next time they are requested.
+   */
+  public void clear() {
+    generation.incrementAndGet();
+  }
+
+  private OPPExecutionPlanAdapter getAdapter(OPPObjectProcessDiagram opd, boolean create) {
+    synchronized (opd.eAdapters()) {
+      OPPExecutionPlanAdapter adapter = (OPPExecutionPlanAdapter) EcoreUtil.getExistingAdapter(opd, OPPExecutionPlanAdapter.class);
+      if (adapter == null && create) {
+        adapter = new OPPExecutionPlanAdapter();
+        opd.eAdapters().add(adapter);
+      }
+      return adapter;
+    }
+  }
+
+  private long getTimeStamp(OPPObjectProcessDiagram opd) {
+    Resource resource = opd.eResource();
+    return resource == null ? -1 : resource.getTimeStamp();
+  }
+
+  private static class OPPExecutionPlanAdapter extends AdapterImpl {
+    private OPPInZoomedProcessExecutionPlan plan;
+    private int generation;
+
+    @Override
+    public boolean isAdapterForType(Object type) {
+      return type == OPPExecutionPlanAdapter.class;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
+
+import java.util.Arrays;
+
+import com.vainolo.phd.opp.model.OPPObject;
+
+/**
+ * Journal of the objects whose value was set in an {@link OPPInZoomedProcessInstanceHeap} during the current execution
+ * step. Each slot is stamped with the step where it was last recorded, so an object is recorded once per step and
+ * starting a new step doesn't touch the recorded slots. Recording a change does not allocate, except when the
+ * journal grows to fit slots that were added to the heap.
+ */
+class OPPInZoomedProcessHeapJournal implements OPPInZoomedProcessHeapListener {
+
+  private int step = 1;
+  private int[] steps;
+  private OPPObjectSlot[] changed;
+  private int size = 0;
+
+  /**
+   * @param slotCount
+   *          the expected number of slots in the heap.
+   */
+  OPPInZoomedProcessHeapJournal(int slotCount) {
+    steps = new int[Math.max(slotCount, 8)];
+    changed = new OPPObjectSlot[Math.max(slotCount, 8)];
+  }
+
+  /**
+   * Forget the recorded objects and start recording a new step.
+   */
+  void startStep() {
+    size = 0;
+    if (step == Integer.MAX_VALUE) {
+      Arrays.fill(steps, 0);
+      step = 0;
+    }
+    step++;
+  }
+
+  /**
+   * @return the number of objects set in the current step.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return the i-th object set in the current step, in the order the objects were first set.
+   */
+  OPPObject getObject(int i) {
+    return changed[i].getObject();
+  }
+
+  @Override
+  public void variableSet(OPPObjectSlot slot) {
+    int index = slot.getIndex();
+    if (index >= steps.length) {
+      steps = Arrays.copyOf(steps, Math.max(steps.length * 2, index + 1));
+    }
+    if (steps[index] == step)
+      return;
+    steps[index] = step;
+    if (size == changed.length) {
+      changed = Arrays.copyOf(changed, size * 2);
+    }
+    changed[size++] = slot;
+  }
+
+  @Override
+  public void partSet(OPPObjectSlot parent, OPPObjectSlot part) {
+  }
+
+  @Override
+  public void variableCleared(OPPObjectSlot slot) {
+  }
+}
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
+
+/**
+ * Listener to changes in the variables of an {@link OPPInZoomedProcessInstanceHeap}. Listeners are called on the thread
+ * that changes the heap, after the change was made, and receive the slot of the changed object so they can index their
+ * own state by {@link OPPObjectSlot#getIndex()}.
+ */
+interface OPPInZoomedProcessHeapListener {
+
+  /**
+   * The value of a variable was set. When a part of an object is set, this is also called for the object.
+   */
+  void variableSet(OPPObjectSlot slot);
+
+  /**
+   * A part was added to (or replaced in) the value of a variable.
+   */
+  void partSet(OPPObjectSlot parent, OPPObjectSlot part);
+
+  /**
+   * The value of a variable was cleared.
+   */
+  void variableCleared(OPPObjectSlot slot);
+}
@@ -7,21 +7,16 @@
 package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
 
 import java.util.Collection;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Observable;
-import java.util.Observer;
-import java.util.Set;
 
 import static com.google.common.base.Preconditions.*;
 import static com.vainolo.phd.opp.utilities.OPPLogger.*;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
-import com.vainolo.phd.opp.interpreter.OPPInterpreter;
-import com.vainolo.phd.opp.interpreter.OPPObjectInstanceValueAnalyzer;
+import com.vainolo.phd.opp.interpreter.OPPGlobalHeap;
+import com.vainolo.phd.opp.interpreter.OPPLiteralValueCache;
 import com.vainolo.phd.opp.interpreter.OPPProcessInstanceHeap;
 import com.vainolo.phd.opp.interpreter.OPPRuntimeException;
 import com.vainolo.phd.opp.interpreter.types.OPPComplexObjectInstance;
@@ -36,17 +31,52 @@ import com.vainolo.phd.opp.utilities.analysis.OPPLinkExtensions;
 import com.vainolo.phd.opp.utilities.analysis.OPPOPDExtensions;
 import com.vainolo.phd.opp.utilities.analysis.OPPObjectExtensions;
 
+/**
+ * Variables of an in-zoomed process instance. Each {@link OPPObject} has a slot in an array of variables, taken from
+ * the {@link OPPInZoomedProcessExecutionPlan} of the process, so accessing a variable does not analyze the links of the
+ * diagram. Objects that are not in the plan (or all objects, if the heap has no plan) are assigned slots the first time
+ * they are accessed.
+ * <p>
+ * Changes to the variables are reported to the {@link OPPInZoomedProcessHeapListener}s of the heap with the slot of the
+ * changed object, without allocating a change event.
+ */
 public class OPPInZoomedProcessInstanceHeap extends OPPProcessInstanceHeap {
 
-  private Map<OPPObject, OPPObjectInstance> variables;
-  private OPPObjectInstanceValueAnalyzer valueAnalyzer;
-  private Observable observable;
+  private final OPPInZoomedProcessExecutionPlan plan;
+  private final int planSlotCount;
+  private final Map<OPPObject, OPPObjectSlot> extraSlots = Maps.newHashMap();
+  private OPPObjectInstance[] variables;
+  private OPPInZoomedProcessHeapListener[] listeners = new OPPInZoomedProcessHeapListener[0];
+  private final OPPGlobalHeap sessionGlobalHeap;
   private boolean globalHeap = false;
 
+  /**
+   * Create a heap that is not part of an execution session. Global objects are stored in a private global heap.
+   */
   public OPPInZoomedProcessInstanceHeap() {
-    this.valueAnalyzer = new OPPObjectInstanceValueAnalyzer();
-    this.variables = Maps.newHashMap();
-    this.observable = new OPMHeapObservable();
+    this(new OPPGlobalHeap());
+  }
+
+  /**
+   * Create a heap where global objects are stored in the given global heap, usually the heap of the execution session.
+   */
+  public OPPInZoomedProcessInstanceHeap(OPPGlobalHeap sessionGlobalHeap) {
+    this(sessionGlobalHeap, null);
+  }
+
+  /**
+   * Create a heap whose variable slots are taken from an execution plan.
+   * 
+   * @param sessionGlobalHeap
+   *          where global objects are stored.
+   * @param plan
+   *          the execution plan of the in-zoomed process, or <code>null</code> to assign slots on demand.
+   */
+  public OPPInZoomedProcessInstanceHeap(OPPGlobalHeap sessionGlobalHeap, OPPInZoomedProcessExecutionPlan plan) {
+    this.sessionGlobalHeap = checkNotNull(sessionGlobalHeap);
+    this.plan = plan;
+    this.planSlotCount = plan == null ? 0 : plan.getSlotCount();
+    this.variables = new OPPObjectInstance[Math.max(planSlotCount, 8)];
   }
 
   public void setGlobalHeap(boolean global) {
@@ -78,37 +108,98 @@ public class OPPInZoomedProcessInstanceHeap extends OPPProcessInstanceHeap {
    *          the value to store
    */
   public void setVariable(OPPObject object, OPPObjectInstance value) {
+    setVariable(getSlot(object), value);
+  }
+
+  private void setVariable(OPPObjectSlot slot, OPPObjectInstance value) {
     checkArgument(value != null, "Value cannot be null");
-    if (OPPObjectExtensions.findParent(object) != null) {
-      setPartVariable(object, value);
+    if (slot.getParent() != null) {
+      setPartVariable(slot, value);
     } else {
-      setMainVariable(object, value);
+      setMainVariable(slot, value);
     }
-    transferDataFromObject(object);
+    transferDataFromObject(slot);
   }
 
-  private void setPartVariable(OPPObject object, OPPObjectInstance value) {
-    OPPObject parentObject = OPPObjectExtensions.findParent(object);
-    OPPComplexObjectInstance parentValue = (OPPComplexObjectInstance) getVariable(parentObject);
+  private void setPartVariable(OPPObjectSlot slot, OPPObjectInstance value) {
+    OPPObject object = slot.getObject();
+    OPPObjectSlot parentSlot = slot.getParent();
+    if (isGlobalMainVariable(slot.getPath()[0])) {
+      setGlobalPartVariable(slot, value);
+      return;
+    }
+    OPPComplexObjectInstance parentValue = (OPPComplexObjectInstance) getVariable(parentSlot);
     if (parentValue == null) {
       parentValue = OPPObjectInstance.createCompositeInstance();
     }
-    setVariable(parentObject, parentValue);
-    parentValue = (OPPComplexObjectInstance) getVariable(parentObject);
+    setVariable(parentSlot, parentValue);
+    parentValue = (OPPComplexObjectInstance) getVariable(parentSlot);
     parentValue.setPart(object.getName(), OPPObjectInstance.createFromExistingInstance(value));
-    logFinest("Setting part variable {0} with value {1}.", object.getName(), value.toString());
-    observable.notifyObservers(new OPMHeapChange(parentObject, parentValue, object, getVariable(object)));
+    logFinest("Setting part variable {0} with value {1}.", object.getName(), value);
+    for (OPPInZoomedProcessHeapListener listener : listeners) {
+      listener.partSet(parentSlot, slot);
+    }
+  }
+
+  /**
+   * Set a part of a global object, at any depth, by atomically replacing the value of the global object with a copy
+   * where the objects that contain the part are also copied. Concurrent processes setting parts of the same global
+   * object don't lose each other's changes, and values that were already read from the global object are not changed.
+   */
+  private void setGlobalPartVariable(OPPObjectSlot slot, OPPObjectInstance value) {
+    OPPObjectSlot[] path = slot.getPath();
+    OPPObjectInstance partValue = OPPObjectInstance.createFromExistingInstance(value);
+    sessionGlobalHeap.computeVariable(path[0].getObject().getName(), (name, current) -> {
+      OPPComplexObjectInstance updated = copyOrCreateComposite(current);
+      OPPComplexObjectInstance parent = updated;
+      for (int i = 1; i < path.length - 1; i++) {
+        String partName = path[i].getObject().getName();
+        OPPComplexObjectInstance part = copyOrCreateComposite(parent.getPart(partName));
+        parent.setPart(partName, part);
+        parent = part;
+      }
+      parent.setPart(slot.getObject().getName(), partValue);
+      return updated;
+    });
+    logFinest("Setting part variable {0} of global object with value {1}.", slot.getObject().getName(), value);
+    for (int i = 0; i < path.length - 1; i++) {
+      for (OPPInZoomedProcessHeapListener listener : listeners) {
+        if (i == 0) {
+          listener.variableSet(path[0]);
+        } else {
+          listener.partSet(path[i - 1], path[i]);
+        }
+      }
+      transferDataFromObject(path[i]);
+    }
+    for (OPPInZoomedProcessHeapListener listener : listeners) {
+      listener.partSet(slot.getParent(), slot);
+    }
   }
 
-  private void setMainVariable(OPPObject object, OPPObjectInstance value) {
-    logFinest("Setting main variable {0} with value {1}.", object.getName(), value.toString());
+  private static OPPComplexObjectInstance copyOrCreateComposite(OPPObjectInstance value) {
+    if (value == null) {
+      return OPPObjectInstance.createCompositeInstance();
+    }
+    return (OPPComplexObjectInstance) OPPObjectInstance.createFromExistingInstance(value);
+  }
+
+  private boolean isGlobalMainVariable(OPPObjectSlot slot) {
+    return slot.getParent() == null && slot.getObject().isGlobal() && !isGlobalHeap();
+  }
+
+  private void setMainVariable(OPPObjectSlot slot, OPPObjectInstance value) {
+    OPPObject object = slot.getObject();
+    logFinest("Setting main variable {0} with value {1}.", object.getName(), value);
     OPPObjectInstance objectValue = OPPObjectInstance.createFromExistingInstance(value);
     if (object.isGlobal() && !isGlobalHeap()) {
-      OPPInterpreter.INSTANCE.getGlobalHeap().setVariable(object.getName(), objectValue);
+      sessionGlobalHeap.setVariable(object.getName(), objectValue);
     } else {
-      variables.put(object, objectValue);
+      variables[slot.getIndex()] = objectValue;
+    }
+    for (OPPInZoomedProcessHeapListener listener : listeners) {
+      listener.variableSet(slot);
     }
-    observable.notifyObservers(new OPMHeapChange(object, objectValue));
   }
 
   /**
@@ -120,33 +211,31 @@ public class OPPInZoomedProcessInstanceHeap extends OPPProcessInstanceHeap {
    * @return the value of the {@link OPPObject}, or <code>null</code> if no value has been assigned.
    */
   public OPPObjectInstance getVariable(OPPObject object) {
-    if (OPPObjectExtensions.findParent(object) != null) {
-      return getPartVariable(object);
-    } else {
-      return getMainVariable(object);
-    }
+    return getVariable(getSlot(object));
   }
 
-  private OPPObjectInstance getPartVariable(OPPObject object) {
-    OPPComplexObjectInstance parent = (OPPComplexObjectInstance) getVariable(OPPObjectExtensions.findParent(object));
-    OPPObjectInstance value;
-    if (parent == null) {
-      logFinest("Parent of {0} doesn't exist, so part doesn't exist either.", object.getName());
-      value = null;
-    } else {
-      value = parent.getPart(object.getName());
-      logFinest("Getting part variable {0} which is {1}.", object.getName(), parent.getPart(object.getName()));
+  private OPPObjectInstance getVariable(OPPObjectSlot slot) {
+    OPPObjectSlot[] path = slot.getPath();
+    OPPObjectInstance value = getMainVariable(path[0]);
+    for (int i = 1; i < path.length; i++) {
+      if (value == null) {
+        logFinest("Parent of {0} doesn't exist, so part doesn't exist either.", path[i].getObject().getName());
+        return null;
+      }
+      value = ((OPPComplexObjectInstance) value).getPart(path[i].getObject().getName());
+      logFinest("Getting part variable {0} which is {1}.", path[i].getObject().getName(), value);
     }
     return value;
   }
 
-  private OPPObjectInstance getMainVariable(OPPObject object) {
+  private OPPObjectInstance getMainVariable(OPPObjectSlot slot) {
+    OPPObject object = slot.getObject();
     OPPObjectInstance value;
     if (object.isGlobal() && !isGlobalHeap()) {
-      value = OPPInterpreter.INSTANCE.getGlobalHeap().getVariable(object.getName());
+      value = sessionGlobalHeap.getVariable(object.getName());
       logFinest("Getting global variable {0} which is {1}.", object.getName(), value);
     } else {
-      value = variables.get(object);
+      value = variables[slot.getIndex()];
       logFinest("Getting main variable {0} which is {1}.", object.getName(), value);
     }
     return value;
@@ -154,31 +243,74 @@ public class OPPInZoomedProcessInstanceHeap extends OPPProcessInstanceHeap {
 
   /** Clear the value of a variable when used with a consumption link. */
   public void clearVariable(OPPObject object) {
-    if (OPPObjectExtensions.findParent(object) != null) {
-      clearPartVariable(object);
+    OPPObjectSlot slot = getSlot(object);
+    if (slot.getParent() != null) {
+      clearPartVariable(slot);
     } else {
-      clearMainVariable(object);
+      clearMainVariable(slot);
     }
   }
 
-  private void clearPartVariable(OPPObject object) {
-    OPPComplexObjectInstance parent = (OPPComplexObjectInstance) getVariable(OPPObjectExtensions.findParent(object));
-    if (parent == null) {
-      logSevere("Tried clearing a variable which is part of another object, but parent object doesn't exist.", object.getName());
-      throw new OPPRuntimeException("Tried clearing a variable (" + object.getName() + ") which is part of another object, but parent object doesn't exist.");
+  private void clearPartVariable(OPPObjectSlot slot) {
+    OPPObject object = slot.getObject();
+    if (isGlobalMainVariable(slot.getPath()[0])) {
+      clearGlobalPartVariable(slot);
     } else {
-      logFinest("Clearing part variable {0}.", object.getName());
+      OPPComplexObjectInstance parent = (OPPComplexObjectInstance) getVariable(slot.getParent());
+      if (parent == null) {
+        throw parentDoesNotExist(object);
+      }
       parent.removePart(object.getName());
     }
+    logFinest("Clearing part variable {0}.", object.getName());
+    for (OPPInZoomedProcessHeapListener listener : listeners) {
+      listener.variableCleared(slot);
+    }
   }
 
-  private void clearMainVariable(OPPObject object) {
+  /**
+   * Clear a part of a global object, at any depth, by atomically replacing the value of the global object with a copy
+   * without the part, like {@link #setGlobalPartVariable(OPPObjectSlot, OPPObjectInstance)}.
+   */
+  private void clearGlobalPartVariable(OPPObjectSlot slot) {
+    OPPObjectSlot[] path = slot.getPath();
+    sessionGlobalHeap.computeVariable(path[0].getObject().getName(), (name, current) -> {
+      if (current == null) {
+        throw parentDoesNotExist(slot.getObject());
+      }
+      OPPComplexObjectInstance updated = copyOrCreateComposite(current);
+      OPPComplexObjectInstance parent = updated;
+      for (int i = 1; i < path.length - 1; i++) {
+        String partName = path[i].getObject().getName();
+        OPPObjectInstance part = parent.getPart(partName);
+        if (part == null) {
+          throw parentDoesNotExist(slot.getObject());
+        }
+        OPPComplexObjectInstance partCopy = copyOrCreateComposite(part);
+        parent.setPart(partName, partCopy);
+        parent = partCopy;
+      }
+      parent.removePart(slot.getObject().getName());
+      return updated;
+    });
+  }
+
+  private static OPPRuntimeException parentDoesNotExist(OPPObject object) {
+    logSevere("Tried clearing a variable ({0}) which is part of another object, but parent object doesn't exist.", object.getName());
+    return new OPPRuntimeException("Tried clearing a variable (" + object.getName() + ") which is part of another object, but parent object doesn't exist.");
+  }
+
+  private void clearMainVariable(OPPObjectSlot slot) {
+    OPPObject object = slot.getObject();
     if (object.isGlobal() && !isGlobalHeap()) {
-      OPPInterpreter.INSTANCE.getGlobalHeap().clearVariable(object.getName());
+      sessionGlobalHeap.clearVariable(object.getName());
     } else {
-      variables.remove(object);
+      variables[slot.getIndex()] = null;
       logFinest("Clearing main variable {0}.", object.getName());
     }
+    for (OPPInZoomedProcessHeapListener listener : listeners) {
+      listener.variableCleared(slot);
+    }
   }
 
   /**
@@ -187,40 +319,58 @@ public class OPPInZoomedProcessInstanceHeap extends OPPProcessInstanceHeap {
    * 
    * @param source
    */
-  private void transferDataFromObject(OPPObject source) {
-    Collection<OPPProceduralLink> dataTransferLinks = OPPObjectExtensions.findOutgoingDataLinks(source);
-    for (OPPProceduralLink link : dataTransferLinks) {
-      if (link.getTarget() instanceof OPPProcess)
-        continue;
-
+  private void transferDataFromObject(OPPObjectSlot source) {
+    List<OPPProceduralLink> dataTransferLinks = source.getDataTransferLinks();
+    for (int i = 0; i < dataTransferLinks.size(); i++) {
+      OPPProceduralLink link = dataTransferLinks.get(i);
       OPPObject target = OPPLinkExtensions.getTargetObject(link);
       if ((link.getCenterDecoration() == null) || (link.getCenterDecoration().equals(""))) {
-        setVariable(target, getVariable(source));
+        setVariable(getSlot(target), getVariable(source));
       } else {
         throw new OPPRuntimeException("Data transfer link modifiers are not supported.");
       }
 
       if (link.getKind() == OPPProceduralLinkKind.CONS_RES) {
-        clearVariable(source);
+        clearVariable(source.getObject());
       }
 
     }
   }
 
+  private OPPObjectSlot getSlot(OPPObject object) {
+    OPPObjectSlot slot = plan == null ? null : plan.getSlot(object);
+    if (slot == null) {
+      slot = extraSlots.get(object);
+      if (slot == null) {
+        slot = createExtraSlot(object);
+      }
+    }
+    return slot;
+  }
+
+  /**
+   * Assign slots to an object that is not in the plan, and to the objects that it is part of.
+   */
+  private OPPObjectSlot createExtraSlot(OPPObject object) {
+    OPPObject parent = OPPObjectExtensions.findParent(object);
+    OPPObjectSlot parentSlot = parent == null ? null : getSlot(parent);
+    OPPObjectSlot slot = new OPPObjectSlot(object, planSlotCount + extraSlots.size(), parentSlot);
+    extraSlots.put(object, slot);
+    if (planSlotCount + extraSlots.size() > variables.length) {
+      variables = Arrays.copyOf(variables, Math.max(variables.length * 2, planSlotCount + extraSlots.size()));
+    }
+    return slot;
+  }
+
   /**
    * Calculate the value of an {@link OPPObject} literal, and set the value of the {@link OPPObject} variable with the
-   * literal value.
+   * literal value. Literals are parsed once per {@link OPPObject} and cached in the {@link OPPLiteralValueCache}.
    * 
    * @param object
    *          that is being analyzed.
    */
   public boolean calculateOPMObjectValueAndSetVariableIfValueIfExists(OPPObject object) {
-    OPPObjectInstance objectValue;
-    if (object.getInitialValue() != null && !object.getInitialValue().equals("")) {
-      objectValue = valueAnalyzer.calculateOPMObjectValue(object.getInitialValue());
-    } else {
-      objectValue = valueAnalyzer.calculateOPMObjectValue(object.getName());
-    }
+    OPPObjectInstance objectValue = OPPLiteralValueCache.INSTANCE.getLiteralValue(object);
     if (objectValue != null) {
       setVariable(object, objectValue);
       return true;
@@ -233,7 +383,17 @@ public class OPPInZoomedProcessInstanceHeap extends OPPProcessInstanceHeap {
    * Initialize local variables from literals
    */
   public void initializeVariablesWithLiterals(OPPProcess mainProcess) {
-    Collection<OPPObject> objectVariables = OPPContainerExtensions.getObjects(mainProcess);
+    initializeVariablesWithLiterals(OPPContainerExtensions.getObjects(mainProcess));
+  }
+
+  /**
+   * Initialize the given local variables from literals.
+   * 
+   * @param objectVariables
+   *          the objects inside the in-zoomed process, usually taken from the
+   *          {@link OPPInZoomedProcessExecutionPlan}.
+   */
+  public void initializeVariablesWithLiterals(Collection<OPPObject> objectVariables) {
     for (OPPObject object : objectVariables) {
       calculateOPMObjectValueAndSetVariableIfValueIfExists(object);
     }
@@ -244,7 +404,14 @@ public class OPPInZoomedProcessInstanceHeap extends OPPProcessInstanceHeap {
    * values.
    */
   public void initializeVariablesWithArgumentValues(OPPObjectProcessDiagram opd) {
-    Collection<OPPObject> objectArguments = OPPOPDExtensions.getParameters(opd);
+    initializeVariablesWithArgumentValues(OPPOPDExtensions.getParameters(opd));
+  }
+
+  /**
+   * Create a variable for all of the given parameter objects, using the argument passed to the process or the literal
+   * value of the object.
+   */
+  public void initializeVariablesWithArgumentValues(Collection<OPPObject> objectArguments) {
     for (OPPObject object : objectArguments) {
       if (getArgument(object.getName()) != null) {
         setVariable(object, getArgument(object.getName()));
@@ -272,7 +439,13 @@ public class OPPInZoomedProcessInstanceHeap extends OPPProcessInstanceHeap {
    *          The Object Process Diagram that contains the variables and the arguments.
    */
   public void exportVariableValuesToArguments(OPPObjectProcessDiagram opd) {
-    Collection<OPPObject> objectArguments = OPPOPDExtensions.getParameters(opd);
+    exportVariableValuesToArguments(OPPOPDExtensions.getParameters(opd));
+  }
+
+  /**
+   * Copy the value stored in the given parameter objects to the external arguments.
+   */
+  public void exportVariableValuesToArguments(Collection<OPPObject> objectArguments) {
     for (OPPObject object : objectArguments) {
       OPPObjectInstance variable = getVariable(object);
       if (variable != null) {
@@ -282,74 +455,11 @@ public class OPPInZoomedProcessInstanceHeap extends OPPProcessInstanceHeap {
   }
 
   /**
-   * Add an observer to changes in the {@link OPPInZoomedProcessInstanceHeap}
-   * 
-   * @param observer
-   *          a new observer for this {@link OPPInZoomedProcessInstanceHeap}
+   * Add a listener to changes in the {@link OPPInZoomedProcessInstanceHeap}. Listeners are called in the order they
+   * were added.
    */
-  public void addObserver(Observer observer) {
-    observable.addObserver(observer);
+  void addListener(OPPInZoomedProcessHeapListener listener) {
+    listeners = Arrays.copyOf(listeners, listeners.length + 1);
+    listeners[listeners.length - 1] = checkNotNull(listener);
   }
-
-  class OPMHeapObservable extends Observable {
-    @Override
-    public void notifyObservers(Object arg) {
-      setChanged();
-      super.notifyObservers(arg);
-    }
-  }
-
-  static class OPMHeapObserver implements Observer {
-    private List<OPMHeapChange> changes = Lists.newArrayList();
-
-    @Override
-    public void update(Observable o, Object arg) {
-      changes.add(0, OPMHeapChange.class.cast(arg));
-    }
-
-    public void clear() {
-      changes.clear();
-    }
-
-    public List<OPMHeapChange> getChanges() {
-      return Collections.unmodifiableList(changes);
-    }
-
-    public Set<OPPObject> getObjectsWithNewValue() {
-      Set<OPPObject> objects = Sets.newHashSet();
-      for (OPMHeapChange change : changes) {
-        if (change.changeType.equals(OPMHeapChangeType.VARIABLE_SET)) {
-          objects.add(change.object);
-        }
-      }
-      return objects;
-    }
-  }
-
-  enum OPMHeapChangeType {
-    VARIABLE_SET, PART_ADDED
-  }
-
-  class OPMHeapChange {
-    public OPMHeapChangeType changeType;
-    public OPPObject object;
-    public OPPObjectInstance objectInstance;
-    public OPPObject child;
-    public OPPObjectInstance childInstance;
-
-    public OPMHeapChange(OPPObject object, OPPObjectInstance instance) {
-      this.changeType = OPMHeapChangeType.VARIABLE_SET;
-      this.object = object;
-      this.objectInstance = instance;
-    }
-
-    public OPMHeapChange(OPPObject parent, OPPObjectInstance parentInstance, OPPObject child, OPPObjectInstance childInstance) {
-      this.changeType = OPMHeapChangeType.PART_ADDED;
-      this.object = parent;
-      this.objectInstance = parentInstance;
-      this.child = child;
-      this.childInstance = childInstance;
-    }
-  }
-
 }
@@ -12,50 +12,28 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
-import com.google.common.collect.Lists;
-import com.google.common.collect.Ordering;
 import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
 import com.vainolo.phd.opp.model.OPPProcess;
-import com.vainolo.phd.opp.utilities.analysis.OPPContainerExtensions;
-import com.vainolo.phd.opp.utilities.analysis.OPPOPDExtensions;
 
 public class OPPInZoomedProcessIntanceProgramCounter {
   private int pc = 0;
-  private OPPObjectProcessDiagram opd;
-  List<OPPProcess> sortedProcesses;
+  private final OPPInZoomedProcessExecutionPlan plan;
 
   public OPPInZoomedProcessIntanceProgramCounter(OPPObjectProcessDiagram opd) {
-    pc = 0;
-    this.opd = opd;
-    initialize();
+    this(OPPInZoomedProcessExecutionPlanCache.INSTANCE.getPlan(opd));
   }
 
-  private void initialize() {
-    OPPContainerExtensions contExt = new OPPContainerExtensions();
-
-    OPPProcess inZoomedProcess = OPPOPDExtensions.getInZoomedProcess(opd);
-    OPPProcessOrdering ordering = new OPPProcessOrdering();
-    sortedProcesses = ordering.sortedCopy(contExt.getProcesses(inZoomedProcess));
+  public OPPInZoomedProcessIntanceProgramCounter(OPPInZoomedProcessExecutionPlan plan) {
+    pc = 0;
+    this.plan = plan;
   }
 
   public int getNextPC() {
-    for (OPPProcess process : sortedProcesses) {
-      if (process.getY() > pc) {
-        return process.getY();
-      }
-    }
-    return Integer.MAX_VALUE;
+    return plan.getNextBandY(pc);
   }
 
   private List<OPPProcess> getProcessesAtPC() {
-    List<OPPProcess> processesAtPC = Lists.newArrayList();
-    for (OPPProcess process : sortedProcesses) {
-      if (process.getY() == pc)
-        processesAtPC.add(process);
-      if (process.getY() > pc)
-        break;
-    }
-    return processesAtPC;
+    return plan.getBand(pc);
   }
 
   public List<OPPProcess> getNextProcesses(Collection<OPPProcess> P_waiting, Collection<OPPProcess> P_executing) {
@@ -82,13 +60,4 @@ public class OPPInZoomedProcessIntanceProgramCounter {
     this.pc = pc;
   }
 
-  class OPPProcessOrdering extends Ordering<OPPProcess> {
-
-    @Override
-    public int compare(OPPProcess arg1, OPPProcess arg2) {
-      return arg1.getY() - arg2.getY();
-    }
-
-  }
-
 }
@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
+
+import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.vainolo.phd.opp.model.OPPObject;
+import com.vainolo.phd.opp.model.OPPProceduralLink;
+import com.vainolo.phd.opp.model.OPPProcess;
+import com.vainolo.phd.opp.utilities.analysis.OPPLinkExtensions;
+
+/**
+ * Set of processes waiting for their inputs, where each waiting process keeps a count of its unsatisfied input links.
+ * The set listens to changes in the {@link OPPInZoomedProcessInstanceHeap} and only re-checks the links of the
+ * processes that are connected to a changed object, so a process becomes ready as soon as its count reaches zero,
+ * without testing all the waiting processes after every change.
+ *
+ * Links whose source is a global object, or a part of a global object, can be changed by other process instances, so
+ * they are re-checked every time the ready processes are fetched.
+ */
+class OPPInZoomedProcessReadySet implements OPPInZoomedProcessHeapListener {
+
+  private final OPPInZoomedProcessExecutionPlan plan;
+  private final Predicate<OPPProceduralLink> isLinkSourceReady;
+  private final Map<OPPProcess, OPPWaitingProcess> waiting = Maps.newLinkedHashMap();
+  private final Map<OPPObject, List<OPPWaitingInput>> inputsByObject = Maps.newHashMap();
+  private final Set<OPPWaitingInput> volatileInputs = Sets.newLinkedHashSet();
+  private final Set<OPPProcess> ready = Sets.newLinkedHashSet();
+
+  /**
+   * Create a new ready set.
+   *
+   * @param plan
+   *          the execution plan where the input links of the processes are taken from.
+   * @param isLinkSourceReady
+   *          test if the source of an input link currently satisfies the link.
+   */
+  OPPInZoomedProcessReadySet(OPPInZoomedProcessExecutionPlan plan, Predicate<OPPProceduralLink> isLinkSourceReady) {
+    this.plan = plan;
+    this.isLinkSourceReady = isLinkSourceReady;
+  }
+
+  /**
+   * Add a process to the waiting processes, calculating the number of its unsatisfied inputs.
+   */
+  void add(OPPProcess process) {
+    if (waiting.containsKey(process))
+      return;
+    OPPInZoomedProcessExecutionPlan.OPPProcessPlan processPlan = plan.getProcessPlan(process);
+    OPPWaitingProcess waitingProcess = new OPPWaitingProcess(process);
+    waiting.put(process, waitingProcess);
+    addInputs(waitingProcess, processPlan.getIncomingDataLinks());
+    addInputs(waitingProcess, processPlan.getIncomingNonEventAgentLinks());
+    if (waitingProcess.unsatisfied == 0)
+      ready.add(process);
+  }
+
+  void addAll(Collection<OPPProcess> processes) {
+    for (OPPProcess process : processes) {
+      add(process);
+    }
+  }
+
+  private void addInputs(OPPWaitingProcess waitingProcess, List<OPPProceduralLink> links) {
+    for (OPPProceduralLink link : links) {
+      OPPWaitingInput input = new OPPWaitingInput(waitingProcess, link);
+      waitingProcess.inputs.add(input);
+      OPPObject source = OPPLinkExtensions.getSourceObject(link);
+      if (isGlobalOrPartOfGlobal(source)) {
+        volatileInputs.add(input);
+      } else {
+        List<OPPWaitingInput> inputs = inputsByObject.get(source);
+        if (inputs == null) {
+          inputs = Lists.newArrayList();
+          inputsByObject.put(source, inputs);
+        }
+        inputs.add(input);
+      }
+      input.satisfied = isLinkSourceReady.test(link);
+      if (!input.satisfied)
+        waitingProcess.unsatisfied++;
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the object or one of the objects it is part of is global.
+   */
+  private boolean isGlobalOrPartOfGlobal(OPPObject object) {
+    while (object != null) {
+      if (object.isGlobal())
+        return true;
+      object = plan.getObjectPlan(object).getParent();
+    }
+    return false;
+  }
+
+  /**
+   * Remove all the processes whose inputs are satisfied from the set and return them.
+   */
+  Set<OPPProcess> removeReady() {
+    for (OPPWaitingInput input : volatileInputs) {
+      update(input);
+    }
+    if (ready.isEmpty())
+      return Collections.emptySet();
+
+    Set<OPPProcess> ret = Sets.newLinkedHashSet(ready);
+    for (OPPProcess process : ret) {
+      remove(process);
+    }
+    logFine("Found {0} ready processes.", ret.size());
+    return ret;
+  }
+
+  private void remove(OPPProcess process) {
+    OPPWaitingProcess waitingProcess = waiting.remove(process);
+    for (OPPWaitingInput input : waitingProcess.inputs) {
+      OPPObject source = OPPLinkExtensions.getSourceObject(input.link);
+      if (!volatileInputs.remove(input)) {
+        List<OPPWaitingInput> inputs = inputsByObject.get(source);
+        inputs.remove(input);
+        if (inputs.isEmpty())
+          inputsByObject.remove(source);
+      }
+    }
+    ready.remove(process);
+  }
+
+  /**
+   * @return the processes that are waiting for their inputs, including the ready processes that were not removed yet.
+   */
+  Collection<OPPProcess> getWaiting() {
+    return Collections.unmodifiableSet(waiting.keySet());
+  }
+
+  int size() {
+    return waiting.size();
+  }
+
+  void clear() {
+    waiting.clear();
+    inputsByObject.clear();
+    volatileInputs.clear();
+    ready.clear();
+  }
+
+  @Override
+  public void variableSet(OPPObjectSlot slot) {
+    objectChanged(slot.getObject());
+  }
+
+  @Override
+  public void partSet(OPPObjectSlot parent, OPPObjectSlot part) {
+    objectChanged(parent.getObject());
+    objectChanged(part.getObject());
+  }
+
+  @Override
+  public void variableCleared(OPPObjectSlot slot) {
+    objectChanged(slot.getObject());
+  }
+
+  /**
+   * Re-check the inputs connected to a changed object. Since the value of an object includes the values of its parts,
+   * the inputs connected to the parents and the parts of the object are also re-checked.
+   */
+  void objectChanged(OPPObject object) {
+    if (inputsByObject.isEmpty())
+      return;
+    OPPObject parent = plan.getObjectPlan(object).getParent();
+    while (parent != null) {
+      updateInputsOf(parent);
+      parent = plan.getObjectPlan(parent).getParent();
+    }
+    updateInputsOfObjectAndParts(object);
+  }
+
+  private void updateInputsOfObjectAndParts(OPPObject object) {
+    updateInputsOf(object);
+    for (OPPObject part : plan.getObjectPlan(object).getParts()) {
+      updateInputsOfObjectAndParts(part);
+    }
+  }
+
+  private void updateInputsOf(OPPObject object) {
+    List<OPPWaitingInput> inputs = inputsByObject.get(object);
+    if (inputs == null)
+      return;
+    for (OPPWaitingInput input : inputs) {
+      update(input);
+    }
+  }
+
+  private void update(OPPWaitingInput input) {
+    boolean satisfied = isLinkSourceReady.test(input.link);
+    if (satisfied == input.satisfied)
+      return;
+    input.satisfied = satisfied;
+    OPPWaitingProcess waitingProcess = input.process;
+    if (satisfied) {
+      waitingProcess.unsatisfied--;
+      if (waitingProcess.unsatisfied == 0)
+        ready.add(waitingProcess.process);
+    } else {
+      if (waitingProcess.unsatisfied == 0)
+        ready.remove(waitingProcess.process);
+      waitingProcess.unsatisfied++;
+    }
+  }
+
+  private static class OPPWaitingProcess {
+    private final OPPProcess process;
+    private final List<OPPWaitingInput> inputs = Lists.newArrayList();
+    private int unsatisfied = 0;
+
+    OPPWaitingProcess(OPPProcess process) {
+      this.process = process;
+    }
+  }
+
+  private static class OPPWaitingInput {
+    private final OPPWaitingProcess process;
+    private final OPPProceduralLink link;
+    private boolean satisfied;
+
+    OPPWaitingInput(OPPWaitingProcess process, OPPProceduralLink link) {
+      this.process = process;
+      this.link = link;
+    }
+  }
+}
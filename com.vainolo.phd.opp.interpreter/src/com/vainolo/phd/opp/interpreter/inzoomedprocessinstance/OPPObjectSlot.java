@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.vainolo.phd.opp.model.OPPObject;
+import com.vainolo.phd.opp.model.OPPProceduralLink;
+import com.vainolo.phd.opp.model.OPPProcess;
+import com.vainolo.phd.opp.utilities.analysis.OPPObjectExtensions;
+
+/**
+ * Position of an {@link OPPObject} in the variable array of an {@link OPPInZoomedProcessInstanceHeap}. Slots are
+ * assigned densely when an {@link OPPInZoomedProcessExecutionPlan} is compiled, together with the chain of objects
+ * that the object is part of, so the heap does not have to analyze the structural links of the object when its value
+ * is accessed.
+ */
+final class OPPObjectSlot {
+  private final OPPObject object;
+  private final int index;
+  private final OPPObjectSlot parent;
+  private final OPPObjectSlot[] path;
+  private final List<OPPProceduralLink> dataTransferLinks;
+
+  /**
+   * @param object
+   *          the object stored in the slot.
+   * @param index
+   *          the index of the slot in the variable array.
+   * @param parent
+   *          the slot of the object that this object is part of, or <code>null</code> if the object is not a part.
+   */
+  OPPObjectSlot(OPPObject object, int index, OPPObjectSlot parent) {
+    this.object = object;
+    this.index = index;
+    this.parent = parent;
+    if (parent == null) {
+      this.path = new OPPObjectSlot[] { this };
+    } else {
+      this.path = new OPPObjectSlot[parent.path.length + 1];
+      System.arraycopy(parent.path, 0, path, 0, parent.path.length);
+      path[parent.path.length] = this;
+    }
+    ImmutableList.Builder<OPPProceduralLink> links = ImmutableList.builder();
+    for (OPPProceduralLink link : OPPObjectExtensions.findOutgoingDataLinks(object)) {
+      if (!(link.getTarget() instanceof OPPProcess))
+        links.add(link);
+    }
+    this.dataTransferLinks = links.build();
+  }
+
+  OPPObject getObject() {
+    return object;
+  }
+
+  int getIndex() {
+    return index;
+  }
+
+  /**
+   * @return the slot of the object that this object is part of, or <code>null</code> if the object is not a part.
+   */
+  OPPObjectSlot getParent() {
+    return parent;
+  }
+
+  /**
+   * @return the slots from the main object that contains this object (at index 0) to this object.
+   */
+  OPPObjectSlot[] getPath() {
+    return path;
+  }
+
+  /**
+   * @return the outgoing data links of the object whose targets are other objects.
+   */
+  List<OPPProceduralLink> getDataTransferLinks() {
+    return dataTransferLinks;
+  }
+}
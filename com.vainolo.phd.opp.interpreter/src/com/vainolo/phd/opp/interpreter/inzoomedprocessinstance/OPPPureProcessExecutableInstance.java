@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
+
+import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.vainolo.phd.opp.interpreter.OPPAbstractProcessInstance;
+import com.vainolo.phd.opp.interpreter.OPPExecutionSession;
+import com.vainolo.phd.opp.interpreter.OPPParameter;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+
+/**
+ * Instance of a pure in-zoomed process. The outgoing arguments of the process are taken from the
+ * {@link OPPPureProcessResultCache} of the session when the process was already executed with the same incoming
+ * arguments. Otherwise an {@link OPPInZoomedProcessExecutableInstance} is created and executed, and its outgoing
+ * arguments are cached.
+ */
+public class OPPPureProcessExecutableInstance extends OPPAbstractProcessInstance {
+
+  private final OPPObjectProcessDiagram opd;
+  private final OPPInZoomedProcessExecutionPlan plan;
+  private final OPPPureProcessResultCache cache;
+  private OPPPureProcessResultCache.Key key;
+  private Map<String, OPPObjectInstance> results;
+  private boolean lookedUp = false;
+
+  public OPPPureProcessExecutableInstance(OPPObjectProcessDiagram opd, OPPExecutionSession session) {
+    setSession(session);
+    this.opd = opd;
+    this.plan = OPPInZoomedProcessExecutionPlanCache.INSTANCE.getPlan(opd);
+    this.cache = session.getPureProcessResults();
+  }
+
+  /**
+   * Look up the outgoing arguments of this invocation in the cache. Must be called after all the incoming arguments
+   * were set.
+   *
+   * @return <code>true</code> if the results were found, so executing this instance will not execute the process.
+   */
+  public boolean loadCachedResults() {
+    if (!lookedUp) {
+      lookedUp = true;
+      key = OPPPureProcessResultCache.createKey(plan, this);
+      if (key != null) {
+        results = cache.get(key);
+      }
+    }
+    return results != null;
+  }
+
+  @Override
+  protected void executing() throws Exception {
+    if (loadCachedResults()) {
+      logFine("Using cached results of pure process {0}.", getName());
+    } else {
+      OPPInZoomedProcessExecutableInstance instance = new OPPInZoomedProcessExecutableInstance(opd, getSession());
+      for (OPPParameter parameter : plan.getIncomingParameters()) {
+        instance.setArgument(parameter.getName(), getArgument(parameter.getName()));
+      }
+      instance.call();
+      results = Maps.newHashMap();
+      for (OPPParameter parameter : plan.getOutgoingParameters()) {
+        results.put(parameter.getName(), instance.getArgument(parameter.getName()));
+      }
+      if (key != null && !getSession().isStopped()) {
+        cache.put(key, results);
+      }
+    }
+    for (Map.Entry<String, OPPObjectInstance> result : results.entrySet()) {
+      setArgument(result.getKey(), result.getValue());
+    }
+  }
+
+  @Override
+  public List<OPPParameter> getIncomingParameters() {
+    return Lists.newArrayList(plan.getIncomingParameters());
+  }
+
+  @Override
+  public List<OPPParameter> getOutgoingParameters() {
+    return Lists.newArrayList(plan.getOutgoingParameters());
+  }
+
+  @Override
+  public String getName() {
+    return opd.getName();
+  }
+}
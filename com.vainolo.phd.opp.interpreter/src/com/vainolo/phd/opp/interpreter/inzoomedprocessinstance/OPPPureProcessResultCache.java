@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.inzoomedprocessinstance;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Maps;
+import com.vainolo.phd.opp.interpreter.OPPParameter;
+import com.vainolo.phd.opp.interpreter.OPPProcessInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance.InstanceKind;
+
+/**
+ * Results of pure in-zoomed processes (see {@link OPPInZoomedProcessExecutionPlan#isPure()}), keyed by the execution
+ * plan of the process and the values of its incoming arguments. Only invocations whose incoming arguments are all
+ * numbers or strings are cached, because these values are immutable and compared by value. The cache holds a bounded
+ * number of results, evicting the least recently used ones.
+ */
+public class OPPPureProcessResultCache {
+
+  public static final long DEFAULT_MAXIMUM_SIZE = 10000;
+
+  private final Cache<Key, Map<String, OPPObjectInstance>> results;
+
+  public OPPPureProcessResultCache() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  public OPPPureProcessResultCache(long maximumSize) {
+    checkArgument(maximumSize > 0, "Maximum size must be positive.");
+    results = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  /**
+   * Create the key of an invocation of a pure process.
+   *
+   * @param plan
+   *          the execution plan of the invoked process.
+   * @param instance
+   *          an instance that holds the incoming arguments of the invocation.
+   * @return the key of the invocation, or <code>null</code> if the invocation cannot be cached.
+   */
+  public static Key createKey(OPPInZoomedProcessExecutionPlan plan, OPPProcessInstance instance) {
+    List<OPPParameter> parameters = plan.getIncomingParameters();
+    OPPObjectInstance[] values = new OPPObjectInstance[parameters.size()];
+    for (int i = 0; i < values.length; i++) {
+      OPPObjectInstance value = instance.getArgument(parameters.get(i).getName());
+      if (value != null && value.kind != InstanceKind.NUMERICAL && value.kind != InstanceKind.STRING) {
+        return null;
+      }
+      values[i] = value;
+    }
+    return new Key(plan, values);
+  }
+
+  /**
+   * @return the outgoing arguments of a cached invocation, or <code>null</code> if the invocation is not cached. The
+   *         returned values are copies that can be changed by the caller.
+   */
+  public Map<String, OPPObjectInstance> get(Key key) {
+    Map<String, OPPObjectInstance> cached = results.getIfPresent(key);
+    return cached == null ? null : copy(cached);
+  }
+
+  /**
+   * Cache the outgoing arguments of an invocation. Invocations that have outgoing arguments which cannot be copied are
+   * not cached.
+   */
+  public void put(Key key, Map<String, OPPObjectInstance> outgoingArguments) {
+    Map<String, OPPObjectInstance> copied = copy(outgoingArguments);
+    if (copied != null) {
+      results.put(key, Collections.unmodifiableMap(copied));
+    }
+  }
+
+  public long size() {
+    return results.size();
+  }
+
+  public long getHitCount() {
+    return results.stats().hitCount();
+  }
+
+  public long getMissCount() {
+    return results.stats().missCount();
+  }
+
+  /**
+   * @return the fraction of cache lookups that were hits, or 1 if there were no lookups.
+   */
+  public double getHitRate() {
+    return results.stats().hitRate();
+  }
+
+  public CacheStats getStats() {
+    return results.stats();
+  }
+
+  public void clear() {
+    results.invalidateAll();
+  }
+
+  private static Map<String, OPPObjectInstance> copy(Map<String, OPPObjectInstance> arguments) {
+    Map<String, OPPObjectInstance> copy = Maps.newHashMapWithExpectedSize(arguments.size());
+    for (Map.Entry<String, OPPObjectInstance> entry : arguments.entrySet()) {
+      if (entry.getValue() != null) {
+        OPPObjectInstance value = OPPObjectInstance.createFromExistingInstance(entry.getValue());
+        if (value == null)
+          return null;
+        copy.put(entry.getKey(), value);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Key of an invocation of a pure process. Plans are compared by identity, so results are not reused after a diagram
+   * is changed and its plan is compiled again.
+   */
+  public static final class Key {
+    private final OPPInZoomedProcessExecutionPlan plan;
+    private final OPPObjectInstance[] values;
+    private final int hash;
+
+    private Key(OPPInZoomedProcessExecutionPlan plan, OPPObjectInstance[] values) {
+      this.plan = plan;
+      this.values = values;
+      this.hash = 31 * System.identityHashCode(plan) + Arrays.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (!(obj instanceof Key))
+        return false;
+      Key other = (Key) obj;
+      return plan == other.plan && hash == other.hash && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.json;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the input of an {@link OPPJsonPullParser} is not a valid JSON document, or contains values that cannot be
+ * represented as object instances.
+ */
+public class OPPJsonParseException extends IOException {
+
+  private static final long serialVersionUID = -3146512349707046717L;
+
+  private final long offset;
+
+  public OPPJsonParseException(String message, long offset) {
+    super(message + " at offset " + offset);
+    this.offset = offset;
+  }
+
+  /**
+   * @return the offset of the character in the input where the error was found.
+   */
+  public long getOffset() {
+    return offset;
+  }
+}
@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Pull parser for JSON documents. The parser reads its input through a fixed size buffer and returns the document one
+ * {@link Token} at a time, so the memory used by the parser depends on the length of the longest string or number in
+ * the document and on the nesting depth, not on the size of the document.
+ * <p>
+ * The text of the last {@link Token#NAME}, {@link Token#STRING} or {@link Token#NUMBER} token is returned by
+ * {@link #getText()}. Numbers are returned as written in the document, so no precision is lost.
+ */
+public class OPPJsonPullParser {
+
+  public enum Token {
+    BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END_DOCUMENT
+  }
+
+  private static final int BUFFER_SIZE = 8192;
+
+  // what the parser expects next in the innermost open scope
+  private static final int EMPTY_DOCUMENT = 0;
+  private static final int NONEMPTY_DOCUMENT = 1;
+  private static final int EMPTY_OBJECT = 2;
+  private static final int NONEMPTY_OBJECT = 3;
+  private static final int DANGLING_NAME = 4;
+  private static final int EMPTY_ARRAY = 5;
+  private static final int NONEMPTY_ARRAY = 6;
+
+  private final Reader reader;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int position = 0;
+  private int limit = 0;
+  private long bufferOffset = 0;
+
+  private int[] scopes = new int[32];
+  private int depth = 1;
+
+  private final StringBuilder text = new StringBuilder();
+
+  public OPPJsonPullParser(Reader reader) {
+    this.reader = reader;
+    scopes[0] = EMPTY_DOCUMENT;
+  }
+
+  /**
+   * @return the text of the last name, string or number read by the parser.
+   */
+  public String getText() {
+    return text.toString();
+  }
+
+  /**
+   * @return the offset in the input of the character after the last token.
+   */
+  public long getOffset() {
+    return bufferOffset + position;
+  }
+
+  /**
+   * Read the next token of the document.
+   *
+   * @return the next token, or {@link Token#END_DOCUMENT} when the whole document was read.
+   * @throws OPPJsonParseException
+   *           if the document is not valid JSON.
+   */
+  public Token next() throws IOException {
+    int c = nextNonWhitespace();
+    switch (scopes[depth - 1]) {
+    case EMPTY_DOCUMENT:
+      scopes[depth - 1] = NONEMPTY_DOCUMENT;
+      return readValue(c);
+    case NONEMPTY_DOCUMENT:
+      if (c != -1) {
+        throw syntaxError("Unexpected character after the end of the document");
+      }
+      return Token.END_DOCUMENT;
+    case EMPTY_ARRAY:
+      if (c == ']') {
+        depth--;
+        return Token.END_ARRAY;
+      }
+      scopes[depth - 1] = NONEMPTY_ARRAY;
+      return readValue(c);
+    case NONEMPTY_ARRAY:
+      if (c == ']') {
+        depth--;
+        return Token.END_ARRAY;
+      }
+      expect(c, ',');
+      return readValue(nextNonWhitespace());
+    case EMPTY_OBJECT:
+      if (c == '}') {
+        depth--;
+        return Token.END_OBJECT;
+      }
+      return readName(c);
+    case NONEMPTY_OBJECT:
+      if (c == '}') {
+        depth--;
+        return Token.END_OBJECT;
+      }
+      expect(c, ',');
+      return readName(nextNonWhitespace());
+    case DANGLING_NAME:
+      expect(c, ':');
+      scopes[depth - 1] = NONEMPTY_OBJECT;
+      return readValue(nextNonWhitespace());
+    default:
+      throw new IllegalStateException();
+    }
+  }
+
+  private Token readName(int c) throws IOException {
+    expect(c, '"');
+    readString();
+    scopes[depth - 1] = DANGLING_NAME;
+    return Token.NAME;
+  }
+
+  private Token readValue(int c) throws IOException {
+    switch (c) {
+    case '{':
+      push(EMPTY_OBJECT);
+      return Token.BEGIN_OBJECT;
+    case '[':
+      push(EMPTY_ARRAY);
+      return Token.BEGIN_ARRAY;
+    case '"':
+      readString();
+      return Token.STRING;
+    case 't':
+      readKeyword("rue");
+      return Token.TRUE;
+    case 'f':
+      readKeyword("alse");
+      return Token.FALSE;
+    case 'n':
+      readKeyword("ull");
+      return Token.NULL;
+    case -1:
+      throw syntaxError("Unexpected end of input");
+    default:
+      if (c == '-' || isDigit(c)) {
+        readNumber(c);
+        return Token.NUMBER;
+      }
+      throw syntaxError("Unexpected character '" + (char) c + "'");
+    }
+  }
+
+  private void push(int scope) {
+    if (depth == scopes.length) {
+      scopes = Arrays.copyOf(scopes, depth * 2);
+    }
+    scopes[depth++] = scope;
+  }
+
+  private void readKeyword(String rest) throws IOException {
+    for (int i = 0; i < rest.length(); i++) {
+      if (read() != rest.charAt(i)) {
+        throw syntaxError("Invalid literal");
+      }
+    }
+  }
+
+  private void readString() throws IOException {
+    text.setLength(0);
+    while (true) {
+      int c = read();
+      if (c == '"') {
+        return;
+      } else if (c == '\\') {
+        text.append(readEscape());
+      } else if (c == -1) {
+        throw syntaxError("Unterminated string");
+      } else if (c < 0x20) {
+        throw syntaxError("Control character in string");
+      } else {
+        text.append((char) c);
+      }
+    }
+  }
+
+  private char readEscape() throws IOException {
+    int c = read();
+    switch (c) {
+    case '"':
+    case '\\':
+    case '/':
+      return (char) c;
+    case 'b':
+      return '\b';
+    case 'f':
+      return '\f';
+    case 'n':
+      return '\n';
+    case 'r':
+      return '\r';
+    case 't':
+      return '\t';
+    case 'u':
+      int value = 0;
+      for (int i = 0; i < 4; i++) {
+        int digit = Character.digit(read(), 16);
+        if (digit < 0) {
+          throw syntaxError("Invalid unicode escape");
+        }
+        value = (value << 4) | digit;
+      }
+      return (char) value;
+    default:
+      throw syntaxError("Invalid escape sequence");
+    }
+  }
+
+  private void readNumber(int first) throws IOException {
+    text.setLength(0);
+    text.append((char) first);
+    int c = first;
+    if (c == '-') {
+      c = read();
+      if (!isDigit(c)) {
+        throw syntaxError("Invalid number");
+      }
+      text.append((char) c);
+    }
+    if (c != '0') {
+      readDigits();
+    }
+    if (peek() == '.') {
+      text.append((char) read());
+      if (readDigits() == 0) {
+        throw syntaxError("Invalid number");
+      }
+    }
+    if (peek() == 'e' || peek() == 'E') {
+      text.append((char) read());
+      if (peek() == '+' || peek() == '-') {
+        text.append((char) read());
+      }
+      if (readDigits() == 0) {
+        throw syntaxError("Invalid number");
+      }
+    }
+  }
+
+  private int readDigits() throws IOException {
+    int count = 0;
+    while (isDigit(peek())) {
+      text.append((char) read());
+      count++;
+    }
+    return count;
+  }
+
+  private static boolean isDigit(int c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private void expect(int c, char expected) throws IOException {
+    if (c != expected) {
+      throw syntaxError(c == -1 ? "Unexpected end of input" : "Expected '" + expected + "'");
+    }
+  }
+
+  private int nextNonWhitespace() throws IOException {
+    int c = read();
+    while (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+      c = read();
+    }
+    return c;
+  }
+
+  private int peek() throws IOException {
+    if (position == limit && !fill()) {
+      return -1;
+    }
+    return buffer[position];
+  }
+
+  private int read() throws IOException {
+    if (position == limit && !fill()) {
+      return -1;
+    }
+    return buffer[position++];
+  }
+
+  private boolean fill() throws IOException {
+    bufferOffset += limit;
+    position = 0;
+    limit = 0;
+    int read = reader.read(buffer, 0, buffer.length);
+    if (read <= 0) {
+      return false;
+    }
+    limit = read;
+    return true;
+  }
+
+  private OPPJsonParseException syntaxError(String message) {
+    return new OPPJsonParseException(message, getOffset() - 1);
+  }
+}
@@ -8,19 +8,84 @@ package com.vainolo.phd.opp.interpreter.json;
 
 import static com.vainolo.phd.opp.utilities.OPPLogger.*;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Iterator;
 
 import com.eclipsesource.json.JsonArray;
 import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 import com.eclipsesource.json.JsonObject.Member;
+import com.vainolo.phd.opp.interpreter.json.OPPJsonPullParser.Token;
 import com.vainolo.phd.opp.interpreter.types.OPPComplexObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPListObjectInstance;
+import com.vainolo.phd.opp.interpreter.types.OPPNumberObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
 
+/**
+ * Reads JSON values into {@link OPPObjectInstance}s. Objects are read as complex instances, arrays as lists, and
+ * booleans as the strings "yes" and "no". Values can be read from an already parsed {@link JsonValue}, or streamed from
+ * a {@link Reader} or a file, in which case the instances are built directly from the parsed tokens without creating an
+ * intermediate document.
+ */
 public class OPPJsonReader {
 
+  /**
+   * Read a JSON document from a UTF-8 encoded file.
+   *
+   * @throws OPPJsonParseException
+   *           if the file is not a valid JSON document.
+   */
+  public OPPObjectInstance read(Path path) throws IOException {
+    try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      return read(reader);
+    }
+  }
+
+  /**
+   * Read a JSON document from a {@link Reader}. The reader is not closed.
+   *
+   * @throws OPPJsonParseException
+   *           if the input is not a valid JSON document.
+   */
+  public OPPObjectInstance read(Reader reader) throws IOException {
+    OPPJsonPullParser parser = new OPPJsonPullParser(reader);
+    OPPObjectInstance instance = read(parser, parser.next());
+    parser.next();
+    return instance;
+  }
+
+  private OPPObjectInstance read(OPPJsonPullParser parser, Token token) throws IOException {
+    switch (token) {
+    case BEGIN_OBJECT:
+      OPPComplexObjectInstance object = OPPObjectInstance.createCompositeInstance();
+      for (Token next = parser.next(); next != Token.END_OBJECT; next = parser.next()) {
+        String name = parser.getText();
+        object.setPart(name, read(parser, parser.next()));
+      }
+      return object;
+    case BEGIN_ARRAY:
+      OPPListObjectInstance list = OPPObjectInstance.createListInstance();
+      for (Token next = parser.next(); next != Token.END_ARRAY; next = parser.next()) {
+        list.addLast(read(parser, next));
+      }
+      return list;
+    case STRING:
+      return OPPObjectInstance.createFromValue(parser.getText());
+    case NUMBER:
+      return OPPNumberObjectInstance.parse(parser.getText());
+    case TRUE:
+      return OPPObjectInstance.createFromValue("yes");
+    case FALSE:
+      return OPPObjectInstance.createFromValue("no");
+    default:
+      throw new OPPJsonParseException("Unsupported JSON value " + token, parser.getOffset());
+    }
+  }
+
   public OPPObjectInstance readJson(JsonObject jsonObject) {
     if (jsonObject.isArray()) {
       return read(jsonObject.asArray());
@@ -41,13 +106,13 @@ public class OPPJsonReader {
   }
 
   public OPPObjectInstance read(JsonValue value) {
-    logFinest("Reading " + value.toString());
+    logFinest("Reading {0}", value);
     if (value.isArray()) {
       return read(value.asArray());
     } else if (value.isString()) {
       return OPPObjectInstance.createFromValue(value.asString());
     } else if (value.isNumber()) {
-      return OPPObjectInstance.createFromValue(new BigDecimal(value.asDouble()));
+      return OPPNumberObjectInstance.parse(value.toString());
     } else if (value.isBoolean()) {
       return value.asBoolean() ? OPPObjectInstance.createFromValue("yes") : OPPObjectInstance.createFromValue("no");
     } else if (value.isObject()) {
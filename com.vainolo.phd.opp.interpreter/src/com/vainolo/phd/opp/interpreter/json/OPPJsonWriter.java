@@ -6,58 +6,138 @@
  *******************************************************************************/
 package com.vainolo.phd.opp.interpreter.json;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
 import com.eclipsesource.json.Json;
-import com.eclipsesource.json.JsonArray;
-import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
-import com.google.common.base.Preconditions;
 import com.vainolo.phd.opp.interpreter.types.OPPComplexObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPListObjectInstance;
 import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance;
-import com.vainolo.phd.opp.interpreter.types.OPPObjectInstance.InstanceKind;
 
+/**
+ * Writes {@link OPPObjectInstance}s as JSON. Instances are written directly to the output, without building an
+ * intermediate document.
+ */
 public class OPPJsonWriter {
 
-  public JsonObject write(OPPObjectInstance oppObjectInstace) {
-    if (oppObjectInstace.kind == InstanceKind.LIST) {
-      return writeArray((OPPListObjectInstance) oppObjectInstace);
-    } else if (oppObjectInstace.kind == InstanceKind.COMPOSITE) {
-      return writeObject((OPPComplexObjectInstance) oppObjectInstace);
-    } else {
-      throw new IllegalStateException("Function supports lists and complex objects");
+  /**
+   * Write an instance as a JSON string.
+   */
+  public String toJson(OPPObjectInstance instance) {
+    StringBuilder builder = new StringBuilder();
+    try {
+      write(instance, builder);
+    } catch (IOException e) {
+      // a StringBuilder does not throw IOExceptions
+      throw new IllegalStateException(e);
     }
+    return builder.toString();
+  }
+
+  /**
+   * Write an instance as UTF-8 encoded JSON to an {@link OutputStream}. The stream is flushed but not closed.
+   */
+  public void write(OPPObjectInstance instance, OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    write(instance, writer);
+    writer.flush();
   }
 
-  private JsonObject writeArray(OPPListObjectInstance opmListObjectInstance) {
-    JsonArray array = new JsonArray();
-    for (int i = 1; i <= opmListObjectInstance.count(); i++) {
-      array.add(getJSONValue(opmListObjectInstance.get(i)));
+  /**
+   * Write an instance as JSON directly to an {@link Appendable}, without building an intermediate document. Complex
+   * instances are written as objects, lists as arrays, and numbers as written by
+   * {@link OPPObjectInstance#getStringValue()}, so no precision is lost.
+   *
+   * @param instance
+   *          the instance to write.
+   * @param out
+   *          where the JSON text is written.
+   */
+  public void write(OPPObjectInstance instance, Appendable out) throws IOException {
+    switch (instance.kind) {
+    case STRING:
+      writeString(instance.getStringValue(), out);
+      break;
+    case NUMERICAL:
+      out.append(instance.getStringValue());
+      break;
+    case COMPOSITE:
+      OPPComplexObjectInstance object = (OPPComplexObjectInstance) instance;
+      out.append('{');
+      boolean first = true;
+      for (String partName : object.getPartNames()) {
+        if (!first)
+          out.append(',');
+        first = false;
+        writeString(partName, out);
+        out.append(':');
+        write(object.getPart(partName), out);
+      }
+      out.append('}');
+      break;
+    case LIST:
+      OPPListObjectInstance list = (OPPListObjectInstance) instance;
+      out.append('[');
+      for (int i = 1; i <= list.count(); i++) {
+        if (i > 1)
+          out.append(',');
+        write(list.get(i), out);
+      }
+      out.append(']');
+      break;
+    default:
+      throw new IllegalStateException("Cannot write " + instance.kind + " instances as JSON");
     }
-    return null;
   }
 
-  private JsonObject writeObject(OPPComplexObjectInstance obmComplexObjectInstance) {
-    JsonObject jsonObject = new JsonObject();
-    for (String partName : obmComplexObjectInstance.getPartNames()) {
-      OPPObjectInstance partValue = obmComplexObjectInstance.getPart(partName);
-      jsonObject.add(partName, getJSONValue(partValue));
-      // addJSONElement(jsonObject, partName, partValue);
+  private void writeString(String value, Appendable out) throws IOException {
+    out.append('"');
+    int start = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      String escaped = escape(c);
+      if (escaped != null) {
+        out.append(value, start, i).append(escaped);
+        start = i + 1;
+      }
     }
-    return jsonObject;
+    out.append(value, start, value.length()).append('"');
   }
 
-  private JsonValue getJSONValue(OPPObjectInstance opmObject) {
-    if (opmObject.kind == InstanceKind.STRING) {
-      return Json.value(opmObject.getStringValue());
-    } else if (opmObject.kind == InstanceKind.NUMERICAL) {
-      return Json.value(opmObject.getNumericalValue().doubleValue());
-    } else if (opmObject.kind == InstanceKind.COMPOSITE) {
-      return write((OPPComplexObjectInstance) opmObject);
-    } else if (opmObject.kind == InstanceKind.LIST) {
-      return write((OPPListObjectInstance) opmObject);
-    } else {
-      throw new IllegalStateException();
+  private static String escape(char c) {
+    switch (c) {
+    case '"':
+      return "\\\"";
+    case '\\':
+      return "\\\\";
+    case '\n':
+      return "\\n";
+    case '\r':
+      return "\\r";
+    case '\t':
+      return "\\t";
+    case '\b':
+      return "\\b";
+    case '\f':
+      return "\\f";
+    case '\u2028':
+      return "\\u2028";
+    case '\u2029':
+      return "\\u2029";
+    default:
+      return c < 0x20 ? String.format("\\u%04x", (int) c) : null;
     }
   }
 
+  /**
+   * Convert an instance to a minimal-json {@link JsonValue}. Numbers keep their precision.
+   */
+  public JsonValue write(OPPObjectInstance instance) {
+    return Json.parse(toJson(instance));
+  }
 }
@@ -6,19 +6,42 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
-import com.eclipsesource.json.JsonObject;
 import com.google.common.collect.Maps;
 import com.vainolo.phd.opp.interpreter.json.OPPJsonWriter;
 
+/**
+ * Object with named parts. Copies of an object share the same parts until one of them is changed, so passing an object
+ * between processes does not depend on the number of parts.
+ */
 public class OPPComplexObjectInstance extends OPPObjectInstance implements OPPCollectionObjectInstance {
 
   Map<String, OPPObjectInstance> map = Maps.newHashMap();
+  private volatile boolean shared = false;
 
   protected OPPComplexObjectInstance() {
     super(InstanceKind.COMPOSITE);
   }
 
+  /**
+   * Create a copy of this object that shares its parts with this object until one of the objects is changed.
+   */
+  OPPComplexObjectInstance copy() {
+    OPPComplexObjectInstance copy = new OPPComplexObjectInstance();
+    shared = true;
+    copy.map = map;
+    copy.shared = true;
+    return copy;
+  }
+
+  private void beforeChange() {
+    if (shared) {
+      map = Maps.newHashMap(map);
+      shared = false;
+    }
+  }
+
   public OPPObjectInstance setPart(String key, OPPObjectInstance element) {
+    beforeChange();
     return map.put(key, element);
   }
 
@@ -31,6 +54,9 @@ public class OPPComplexObjectInstance extends OPPObjectInstance implements OPPCo
   }
 
   public OPPObjectInstance removePart(String key) {
+    if (!map.containsKey(key))
+      return null;
+    beforeChange();
     return map.remove(key);
   }
 
@@ -40,7 +66,7 @@ public class OPPComplexObjectInstance extends OPPObjectInstance implements OPPCo
   }
 
   public Set<String> getPartNames() {
-    return map.keySet();
+    return Collections.unmodifiableSet(map.keySet());
   }
 
   public Collection<OPPObjectInstance> getAllParts() {
@@ -54,9 +80,7 @@ public class OPPComplexObjectInstance extends OPPObjectInstance implements OPPCo
 
   @Override
   public String getStringValue() {
-    OPPJsonWriter writer = new OPPJsonWriter();
-    JsonObject out = writer.write(this);
-    return out.toString();
+    return new OPPJsonWriter().toJson(this);
     // throw new UnsupportedOperationException("Cannot get string value for a complex object");
   }
 
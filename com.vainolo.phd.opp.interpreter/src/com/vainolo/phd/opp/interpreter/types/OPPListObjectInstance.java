@@ -1,82 +1,173 @@
 package com.vainolo.phd.opp.interpreter.types;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
-
-import com.google.common.collect.Lists;
 
+/**
+ * List of instances. Copies of a list share the same elements until one of them is changed, so passing a list between
+ * processes does not depend on the size of the list. The elements are stored in a ring buffer, so adding and removing
+ * at both ends of the list takes constant time. Indexes of the list start at 1.
+ * <p>
+ * A list created from a range of integers only stores the bounds of the range, and creates its elements when they are
+ * fetched. Removing elements from the ends of a range list shrinks the range; any other change creates the elements of
+ * the list.
+ */
 public class OPPListObjectInstance extends OPPObjectInstance implements OPPCollectionObjectInstance {
 
-  ArrayList<OPPObjectInstance> list = Lists.newArrayList();
+  /**
+   * The elements of the list, or <code>null</code> if this is a range list whose elements were not created.
+   */
+  OPPObjectInstanceDeque list;
+  private volatile boolean shared = false;
+  private long rangeFirst;
+  private long rangeStep;
+  private int rangeSize;
 
   protected OPPListObjectInstance() {
     super(InstanceKind.LIST);
+    list = new OPPObjectInstanceDeque();
+  }
+
+  /**
+   * Create a list with the integers from <code>first</code> to <code>last</code>, inclusive, in ascending order if
+   * <code>first &lt;= last</code> and in descending order otherwise.
+   */
+  protected OPPListObjectInstance(long first, long last) {
+    super(InstanceKind.LIST);
+    long size = Math.abs(last - first) + 1;
+    if (size <= 0 || size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Range [" + first + ".." + last + "] is too large.");
+    }
+    rangeFirst = first;
+    rangeStep = first <= last ? 1 : -1;
+    rangeSize = (int) size;
+  }
+
+  /**
+   * Create a copy of this list that shares its elements with this list until one of the lists is changed.
+   */
+  OPPListObjectInstance copy() {
+    OPPListObjectInstance copy = new OPPListObjectInstance();
+    shared = true;
+    copy.list = list;
+    copy.shared = true;
+    copy.rangeFirst = rangeFirst;
+    copy.rangeStep = rangeStep;
+    copy.rangeSize = rangeSize;
+    return copy;
+  }
+
+  private void beforeChange() {
+    if (list == null) {
+      OPPObjectInstanceDeque elements = new OPPObjectInstanceDeque();
+      for (int i = 0; i < rangeSize; i++) {
+        elements.addLast(rangeElement(i));
+      }
+      list = elements;
+      shared = false;
+    } else if (shared) {
+      list = list.copy();
+      shared = false;
+    }
+  }
+
+  private boolean isRange() {
+    return list == null;
+  }
+
+  private OPPObjectInstance rangeElement(int index) {
+    return OPPObjectInstance.createFromValue(rangeFirst + rangeStep * index);
+  }
+
+  private int size() {
+    return isRange() ? rangeSize : list.size();
+  }
+
+  private OPPObjectInstance element(int index) {
+    return isRange() ? rangeElement(index) : list.get(index);
   }
 
   public void addFirst(OPPObjectInstance element) {
-    list.add(0, element);
+    beforeChange();
+    list.addFirst(element);
   }
 
   public OPPObjectInstance getFirst() {
-    if (list.size() == 0)
+    if (size() == 0)
       return null;
     else
-      return list.get(0);
+      return element(0);
   }
 
   public OPPObjectInstance removeFirst() {
-    if (list.size() == 0)
+    if (size() == 0)
       return null;
-    else
-      return list.remove(0);
+    if (isRange()) {
+      OPPObjectInstance first = rangeElement(0);
+      rangeFirst += rangeStep;
+      rangeSize--;
+      return first;
+    }
+    beforeChange();
+    return list.removeFirst();
   }
 
   public void addLast(OPPObjectInstance element) {
-    list.add(element);
+    beforeChange();
+    list.addLast(element);
   }
 
   public OPPObjectInstance getLast() {
-    if (list.size() == 0)
+    if (size() == 0)
       return null;
     else
-      return list.get(list.size() - 1);
+      return element(size() - 1);
   }
 
   public OPPObjectInstance removeLast() {
-    if (list.size() == 0)
+    if (size() == 0)
       return null;
-    else
-      return list.remove(list.size() - 1);
+    if (isRange()) {
+      rangeSize--;
+      return rangeElement(rangeSize);
+    }
+    beforeChange();
+    return list.removeLast();
   }
 
+  /**
+   * Insert an element so that it is found at the given index.
+   * 
+   * @return <code>true</code> if the element was added, <code>false</code> if the index is not in the list.
+   */
   public boolean add(int index, OPPObjectInstance element) {
-    if (index < 1 || index > list.size()) {
+    if (index < 1 || index > size()) {
       return false;
     } else {
-      list.add(index + 1, element);
+      beforeChange();
+      list.add(index - 1, element);
       return true;
     }
   }
 
   public OPPObjectInstance get(int index) {
-    if (index < 1 || index > list.size())
+    if (index < 1 || index > size())
       return null;
 
-    return list.get(index - 1);
+    return element(index - 1);
   }
 
   public OPPObjectInstance remove(int index) {
-    if (index < 1 || index > list.size()) {
+    if (index < 1 || index > size()) {
       return null;
     } else {
+      beforeChange();
       return list.remove(index - 1);
     }
   }
 
   @Override
   public int count() {
-    return list.size();
+    return size();
   }
 
   @Override
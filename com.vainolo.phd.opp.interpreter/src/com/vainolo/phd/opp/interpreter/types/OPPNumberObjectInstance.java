@@ -2,23 +2,64 @@ package com.vainolo.phd.opp.interpreter.types;
 
 import java.math.BigDecimal;
 
+import com.google.common.math.LongMath;
+import com.google.common.primitives.Longs;
+
+/**
+ * Numerical value. Integral values that fit in a <code>long</code> are stored as a primitive, and all the arithmetic
+ * operations try to stay in <code>long</code>s, promoting the value to a {@link BigDecimal} only when the result
+ * overflows or is not integral. Since only values with scale 0 are stored as a <code>long</code>, the
+ * {@link BigDecimal} returned by {@link #getNumericalValue()} is the same in both representations.
+ */
 public class OPPNumberObjectInstance extends OPPObjectInstance {
 
+  private final long longValue;
   private BigDecimal value;
+  private final boolean isLong;
 
   protected OPPNumberObjectInstance(BigDecimal value) {
     super(InstanceKind.NUMERICAL);
+    if (value.scale() == 0 && value.unscaledValue().bitLength() < 64) {
+      this.isLong = true;
+      this.longValue = value.longValue();
+    } else {
+      this.isLong = false;
+      this.longValue = 0;
+    }
     this.value = value;
   }
 
+  protected OPPNumberObjectInstance(long value) {
+    super(InstanceKind.NUMERICAL);
+    this.isLong = true;
+    this.longValue = value;
+  }
+
+  /**
+   * @return <code>true</code> if the value is stored as a <code>long</code>.
+   */
+  public boolean isLong() {
+    return isLong;
+  }
+
+  /**
+   * @return the value of this instance as a <code>long</code>. Only valid if {@link #isLong()} is <code>true</code>.
+   */
+  public long getLongValue() {
+    return longValue;
+  }
+
   @Override
   public BigDecimal getNumericalValue() {
+    if (value == null) {
+      value = BigDecimal.valueOf(longValue);
+    }
     return value;
   }
 
   @Override
   public String getStringValue() {
-    return value.toString();
+    return isLong ? Long.toString(longValue) : value.toString();
   }
 
   @Override
@@ -28,6 +69,122 @@ public class OPPNumberObjectInstance extends OPPObjectInstance {
 
   @Override
   public String toString() {
-    return value.toString();
+    return getStringValue();
+  }
+
+  /**
+   * Compare the value of this instance to the value of another numerical instance.
+   */
+  public int compareTo(OPPNumberObjectInstance other) {
+    if (isLong && other.isLong) {
+      return Long.compare(longValue, other.longValue);
+    }
+    return getNumericalValue().compareTo(other.getNumericalValue());
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof OPPNumberObjectInstance))
+      return false;
+    return compareTo((OPPNumberObjectInstance) obj) == 0;
+  }
+
+  /**
+   * Numerical instances are equal if their values are numerically equal, regardless of the scale of the value, so the
+   * hash is calculated from the <code>double</code> value, which is the same for all representations of a number.
+   */
+  @Override
+  public int hashCode() {
+    return Double.hashCode(isLong ? (double) longValue : value.doubleValue());
+  }
+
+  // Arithmetic
+
+  /**
+   * Get the numerical value of an instance, parsing the value if the instance is not numerical.
+   */
+  public static OPPNumberObjectInstance asNumber(OPPObjectInstance instance) {
+    if (instance instanceof OPPNumberObjectInstance) {
+      return (OPPNumberObjectInstance) instance;
+    }
+    return parse(instance.getStringValue());
+  }
+
+  /**
+   * Parse a number, using the <code>long</code> representation if possible.
+   *
+   * @throws NumberFormatException
+   *           if the string is not a valid number.
+   */
+  public static OPPNumberObjectInstance parse(String number) {
+    String trimmed = number.trim();
+    Long longValue = Longs.tryParse(trimmed);
+    if (longValue != null) {
+      return new OPPNumberObjectInstance(longValue);
+    }
+    return new OPPNumberObjectInstance(new BigDecimal(trimmed));
+  }
+
+  public static OPPNumberObjectInstance add(OPPNumberObjectInstance a, OPPNumberObjectInstance b) {
+    if (a.isLong && b.isLong) {
+      long r = a.longValue + b.longValue;
+      if (((a.longValue ^ r) & (b.longValue ^ r)) >= 0) {
+        return new OPPNumberObjectInstance(r);
+      }
+    }
+    return new OPPNumberObjectInstance(a.getNumericalValue().add(b.getNumericalValue()));
+  }
+
+  public static OPPNumberObjectInstance subtract(OPPNumberObjectInstance a, OPPNumberObjectInstance b) {
+    if (a.isLong && b.isLong) {
+      long r = a.longValue - b.longValue;
+      if (((a.longValue ^ b.longValue) & (a.longValue ^ r)) >= 0) {
+        return new OPPNumberObjectInstance(r);
+      }
+    }
+    return new OPPNumberObjectInstance(a.getNumericalValue().subtract(b.getNumericalValue()));
+  }
+
+  public static OPPNumberObjectInstance multiply(OPPNumberObjectInstance a, OPPNumberObjectInstance b) {
+    if (a.isLong && b.isLong) {
+      try {
+        return new OPPNumberObjectInstance(Math.multiplyExact(a.longValue, b.longValue));
+      } catch (ArithmeticException e) {
+        // overflow, continue with BigDecimal
+      }
+    }
+    return new OPPNumberObjectInstance(a.getNumericalValue().multiply(b.getNumericalValue()));
+  }
+
+  /**
+   * Divide two numbers. The result must be exactly representable, as in {@link BigDecimal#divide(BigDecimal)}.
+   *
+   * @throws ArithmeticException
+   *           if the divisor is zero or the result has a non-terminating decimal expansion.
+   */
+  public static OPPNumberObjectInstance divide(OPPNumberObjectInstance a, OPPNumberObjectInstance b) {
+    if (a.isLong && b.isLong && b.longValue != 0 && !(a.longValue == Long.MIN_VALUE && b.longValue == -1) && a.longValue % b.longValue == 0) {
+      return new OPPNumberObjectInstance(a.longValue / b.longValue);
+    }
+    return new OPPNumberObjectInstance(a.getNumericalValue().divide(b.getNumericalValue()));
+  }
+
+  public static OPPNumberObjectInstance pow(OPPNumberObjectInstance a, OPPNumberObjectInstance b) {
+    int exponent = b.getNumericalValue().intValueExact();
+    if (a.isLong && exponent >= 0) {
+      try {
+        return new OPPNumberObjectInstance(LongMath.checkedPow(a.longValue, exponent));
+      } catch (ArithmeticException e) {
+        // overflow, continue with BigDecimal
+      }
+    }
+    return new OPPNumberObjectInstance(a.getNumericalValue().pow(exponent));
+  }
+
+  public static OPPNumberObjectInstance negate(OPPNumberObjectInstance a) {
+    if (a.isLong && a.longValue != Long.MIN_VALUE) {
+      return new OPPNumberObjectInstance(-a.longValue);
+    }
+    return new OPPNumberObjectInstance(a.getNumericalValue().negate());
   }
 }
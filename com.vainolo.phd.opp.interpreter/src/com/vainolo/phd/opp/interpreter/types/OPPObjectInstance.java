@@ -13,7 +13,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 import java.util.SortedMap;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.MoreObjects.ToStringHelper;
@@ -35,15 +36,28 @@ public abstract class OPPObjectInstance {
   // private SortedMap<Integer, OPPObjectInstance> compositeValues = Maps.newTreeMap();
   // private BiMap<String, Integer> compositeKeyToIndexMapping = HashBiMap.create();
   public final InstanceKind kind;
-  private UUID internalId;
+  /**
+   * Identity of collection instances, assigned from a sequence the first time it is needed. Values are identified by
+   * their value, so most instances never get one.
+   */
+  private volatile long internalId = 0;
+  private static final AtomicLong NEXT_INTERNAL_ID = new AtomicLong();
+  private static final AtomicLongFieldUpdater<OPPObjectInstance> INTERNAL_ID_UPDATER = AtomicLongFieldUpdater
+      .newUpdater(OPPObjectInstance.class, "internalId");
 
   protected OPPObjectInstance(InstanceKind kind) {
     this.kind = kind;
-    this.internalId = UUID.randomUUID();
+  }
+
+  private long getSequenceId() {
+    if (internalId == 0) {
+      INTERNAL_ID_UPDATER.compareAndSet(this, 0, NEXT_INTERNAL_ID.incrementAndGet());
+    }
+    return internalId;
   }
 
   private String getInternalId() {
-    return internalId.toString();
+    return Long.toString(getSequenceId());
   }
 
   public String getId() {
@@ -68,41 +82,46 @@ public abstract class OPPObjectInstance {
     return new OPPListObjectInstance(); // OPPObjectInstance(InstanceKind.COMPOSITE, "List");
   }
 
+  /**
+   * Create a list with the integers from <code>first</code> to <code>last</code>, inclusive. The elements of the list
+   * are only created when the list is changed.
+   */
+  public static OPPListObjectInstance createRangeListInstance(long first, long last) {
+    return new OPPListObjectInstance(first, last);
+  }
+
   public static OPPNumberObjectInstance createFromValue(BigDecimal decimalValue) {
     Preconditions.checkNotNull(decimalValue, "Value cannot be null.");
     return new OPPNumberObjectInstance(decimalValue);
   }
 
+  public static OPPNumberObjectInstance createFromValue(long longValue) {
+    return new OPPNumberObjectInstance(longValue);
+  }
+
   public static OPPObjectInstance createFromValue(String stringValue) {
     Preconditions.checkNotNull(stringValue, "Value cannot be null.");
     return new OPPStringObjectInstance(stringValue);
   }
 
+  /**
+   * Copy an existing instance. Values are immutable so they are returned as is, and collections are copied lazily, only
+   * when the original or the copy are changed.
+   */
   public static OPPObjectInstance createFromExistingInstance(OPPObjectInstance existingInstance) {
     Preconditions.checkNotNull(existingInstance, "Existing instance cannot be null.");
     OPPObjectInstance newInstance = null;
     switch (existingInstance.kind) {
     case NUMERICAL:
-      newInstance = createFromValue(existingInstance.getNumericalValue());
-      break;
     case STRING:
-      newInstance = createFromValue(existingInstance.getStringValue());
+      // values are immutable and can be shared
+      newInstance = existingInstance;
       break;
     case COMPOSITE:
-      OPPComplexObjectInstance existingCompositeInstance = (OPPComplexObjectInstance) existingInstance;
-      OPPComplexObjectInstance newComplexInstance = createCompositeInstance();
-      for (String partName : existingCompositeInstance.getPartNames()) {
-        newComplexInstance.setPart(partName, existingCompositeInstance.getPart(partName));
-      }
-      newInstance = newComplexInstance;
+      newInstance = ((OPPComplexObjectInstance) existingInstance).copy();
       break;
     case LIST:
-      OPPListObjectInstance existingListInstance = (OPPListObjectInstance) existingInstance;
-      OPPListObjectInstance newListInstance = createListInstance();
-      for (int i = 1; i <= existingListInstance.count(); i++) {
-        newListInstance.addLast(existingListInstance.get(i));
-      }
-      newInstance = newListInstance;
+      newInstance = ((OPPListObjectInstance) existingInstance).copy();
       break;
     case JAVA_OBJECT:
       // newInstance = createFromValue(existingInstance.getValue());
@@ -363,7 +382,7 @@ public abstract class OPPObjectInstance {
       } else if (this.kind == InstanceKind.STRING) {
         return this.getStringValue().equals(other.getStringValue());
       } else if (this.kind == InstanceKind.COMPOSITE || this.kind == InstanceKind.LIST) {
-        return this.internalId == other.internalId;
+        return this == other;
       }
     }
     return false;
@@ -374,11 +393,12 @@ public abstract class OPPObjectInstance {
     switch (kind) {
     case COMPOSITE:
     case LIST:
-      return internalId.hashCode();
+      return Long.hashCode(getSequenceId());
     case STRING:
+      return getStringValue().hashCode();
     case NUMERICAL:
     case JAVA_OBJECT:
-      return value.hashCode();
+      return getValue().hashCode();
     }
 
     return super.hashCode();
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.interpreter.types;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffer of instances that stores the elements of an {@link OPPListObjectInstance}. Adding and removing at both
+ * ends is amortized O(1), positional access is O(1), and inserting or removing in the middle moves the elements of
+ * the shorter side. Indexes are 0-based.
+ */
+final class OPPObjectInstanceDeque {
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private OPPObjectInstance[] elements;
+  private int head = 0;
+  private int size = 0;
+
+  OPPObjectInstanceDeque() {
+    elements = new OPPObjectInstance[INITIAL_CAPACITY];
+  }
+
+  private OPPObjectInstanceDeque(OPPObjectInstanceDeque other) {
+    elements = new OPPObjectInstance[Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, other.size)) << 1)];
+    for (int i = 0; i < other.size; i++) {
+      elements[i] = other.get(i);
+    }
+    size = other.size;
+  }
+
+  OPPObjectInstanceDeque copy() {
+    return new OPPObjectInstanceDeque(this);
+  }
+
+  int size() {
+    return size;
+  }
+
+  private int physical(int index) {
+    return (head + index) & (elements.length - 1);
+  }
+
+  OPPObjectInstance get(int index) {
+    return elements[physical(index)];
+  }
+
+  void addFirst(OPPObjectInstance element) {
+    ensureCapacity();
+    head = (head - 1) & (elements.length - 1);
+    elements[head] = element;
+    size++;
+  }
+
+  void addLast(OPPObjectInstance element) {
+    ensureCapacity();
+    elements[physical(size)] = element;
+    size++;
+  }
+
+  OPPObjectInstance removeFirst() {
+    OPPObjectInstance element = elements[head];
+    elements[head] = null;
+    head = (head + 1) & (elements.length - 1);
+    size--;
+    return element;
+  }
+
+  OPPObjectInstance removeLast() {
+    int last = physical(size - 1);
+    OPPObjectInstance element = elements[last];
+    elements[last] = null;
+    size--;
+    return element;
+  }
+
+  /**
+   * Insert an element so that it is found at the given index, moving the elements of the shorter side.
+   */
+  void add(int index, OPPObjectInstance element) {
+    if (index == 0) {
+      addFirst(element);
+      return;
+    }
+    if (index == size) {
+      addLast(element);
+      return;
+    }
+    ensureCapacity();
+    if (index < size / 2) {
+      head = (head - 1) & (elements.length - 1);
+      for (int i = 0; i < index; i++) {
+        elements[physical(i)] = elements[physical(i + 1)];
+      }
+    } else {
+      for (int i = size; i > index; i--) {
+        elements[physical(i)] = elements[physical(i - 1)];
+      }
+    }
+    elements[physical(index)] = element;
+    size++;
+  }
+
+  /**
+   * Remove the element at the given index, moving the elements of the shorter side.
+   */
+  OPPObjectInstance remove(int index) {
+    OPPObjectInstance element = get(index);
+    if (index < size / 2) {
+      for (int i = index; i > 0; i--) {
+        elements[physical(i)] = elements[physical(i - 1)];
+      }
+      elements[head] = null;
+      head = (head + 1) & (elements.length - 1);
+    } else {
+      for (int i = index; i < size - 1; i++) {
+        elements[physical(i)] = elements[physical(i + 1)];
+      }
+      elements[physical(size - 1)] = null;
+    }
+    size--;
+    return element;
+  }
+
+  private void ensureCapacity() {
+    if (size < elements.length)
+      return;
+    OPPObjectInstance[] newElements = Arrays.copyOf(elements, elements.length << 1);
+    // the wrapped elements at the start of the array are moved after the elements at the end of the array
+    System.arraycopy(elements, 0, newElements, elements.length, head);
+    Arrays.fill(newElements, 0, head, null);
+    elements = newElements;
+  }
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.utilities;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.logging.Level;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class OPPLoggerTest {
+
+  private final List<String> lines = Lists.newArrayList();
+
+  @Before
+  public void setUp() {
+    OPPLogger.setOPPLogTarget(new OPPLogTarget() {
+      @Override
+      public void clear() {
+        lines.clear();
+      }
+
+      @Override
+      public void appendLine(String line) {
+        lines.add(line);
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    OPPLogger.setOPPLogTarget(null);
+    OPPLogger.setLevel(Level.FINEST);
+  }
+
+  @Test
+  public void test_messagesAreWrittenInOrderAfterFlush() {
+    OPPLogger.setLevel(Level.FINEST);
+    for (int i = 0; i < 10000; i++) {
+      OPPLogger.logFinest("Message {0}", i);
+    }
+    OPPLogger.flush();
+    assertEquals(10000, lines.size());
+    assertTrue(lines.get(0).contains("[OPPLoggerTest.test_messagesAreWrittenInOrderAfterFlush] Message 0"));
+    assertTrue(lines.get(9999).contains("Message 9,999"));
+  }
+
+  @Test
+  public void test_disabledLevelDoesNotCreateMessage() {
+    OPPLogger.setLevel(Level.INFO);
+    OPPLogger.logFinest(() -> {
+      fail("Message supplier called for disabled level.");
+      return null;
+    });
+    OPPLogger.logInfo(() -> "Enabled");
+    OPPLogger.flush();
+    assertEquals(1, lines.size());
+    assertTrue(lines.get(0).contains("Enabled"));
+  }
+}
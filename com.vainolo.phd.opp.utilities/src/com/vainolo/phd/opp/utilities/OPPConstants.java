@@ -14,4 +14,9 @@ public class OPPConstants {
   public static final String OPP_CONDITIONAL_LINK_SUBKIND = "c";
   public static final String OPP_EVENT_LINK_SUBKIND = "e";
   public static final String OPP_OPTIONAL_LINK_SUBKIND = "o";
+
+  /**
+   * Marker in the description of a process whose outgoing arguments depend only on its incoming arguments.
+   */
+  public static final String OPP_PURE_PROCESS_MARKER = "@pure";
 }
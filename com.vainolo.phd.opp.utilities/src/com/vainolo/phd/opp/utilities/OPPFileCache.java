@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Arieh "Vainolo" Bibliowicz and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which is available at http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.vainolo.phd.opp.utilities;
+
+import static com.google.common.base.Preconditions.*;
+import static com.vainolo.phd.opp.utilities.OPPLogger.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.vainolo.phd.opp.model.OPPObjectProcessDiagram;
+
+/**
+ * Shared, size-bounded cache of loaded {@link OPPObjectProcessDiagram}s. Diagrams are cached by their workspace path
+ * together with the modification stamp of the file, so a diagram is parsed again only if the file has changed since it
+ * was loaded. When the cache is full, the least recently used diagram is evicted.
+ *
+ * Diagrams returned by this cache are shared and must not be modified.
+ */
+public enum OPPFileCache {
+  INSTANCE;
+
+  public static final int DEFAULT_MAXIMUM_SIZE = 64;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+  private final Map<String, OPPFileCacheEntry> entries = new LinkedHashMap<String, OPPFileCacheEntry>(16, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, OPPFileCacheEntry> eldest) {
+      return size() > maximumSize;
+    }
+  };
+
+  /**
+   * Get the diagram stored in the given path, loading it if it is not cached or if the cached diagram was loaded from
+   * a file with a different modification stamp.
+   *
+   * @param path
+   *          the workspace path of the diagram file.
+   * @param modificationStamp
+   *          the current modification stamp of the file.
+   * @return the loaded diagram, or <code>null</code> if the file could not be loaded.
+   */
+  public OPPObjectProcessDiagram get(String path, long modificationStamp) {
+    synchronized (entries) {
+      OPPFileCacheEntry entry = entries.get(path);
+      if (entry != null && entry.modificationStamp == modificationStamp) {
+        hits.incrementAndGet();
+        return entry.opd;
+      }
+    }
+
+    misses.incrementAndGet();
+    logFine("Loading OPD file {0} into the file cache.", path);
+    OPPObjectProcessDiagram opd = OPPFileUtils.loadOPPFile(path);
+    synchronized (entries) {
+      if (opd != null) {
+        entries.put(path, new OPPFileCacheEntry(opd, modificationStamp));
+      } else {
+        entries.remove(path);
+      }
+    }
+    return opd;
+  }
+
+  /**
+   * Remove a diagram from the cache.
+   *
+   * @param path
+   *          the workspace path of the diagram file.
+   */
+  public void invalidate(String path) {
+    synchronized (entries) {
+      entries.remove(path);
+    }
+  }
+
+  /** Remove all the diagrams from the cache. */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  public void setMaximumSize(int maximumSize) {
+    checkArgument(maximumSize > 0, "Cache size must be positive.");
+    synchronized (entries) {
+      this.maximumSize = maximumSize;
+      while (entries.size() > maximumSize) {
+        entries.remove(entries.keySet().iterator().next());
+      }
+    }
+  }
+
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public void resetStatistics() {
+    hits.set(0);
+    misses.set(0);
+  }
+
+  private static class OPPFileCacheEntry {
+    private final OPPObjectProcessDiagram opd;
+    private final long modificationStamp;
+
+    OPPFileCacheEntry(OPPObjectProcessDiagram opd, long modificationStamp) {
+      this.opd = opd;
+      this.modificationStamp = modificationStamp;
+    }
+  }
+}
@@ -42,6 +42,18 @@ public class OPPFileUtils {
     return opd;
   }
 
+  /**
+   * Load an OPD file through the shared {@link OPPFileCache}. The file is parsed only if it was not loaded before or
+   * if it was modified since it was loaded. The returned diagram is shared and must not be modified.
+   * 
+   * @param file
+   *          the OPD file to load.
+   * @return the loaded diagram, or <code>null</code> if the file could not be loaded.
+   */
+  public static OPPObjectProcessDiagram loadCachedOPPFile(IFile file) {
+    return OPPFileCache.INSTANCE.get(file.getFullPath().toString(), file.getModificationStamp());
+  }
+
   public static void createOPDFile(IFile file, String OPDName, OPPObjectProcessDiagramKind kind) throws IOException {
     if (file.exists()) {
       logInfo("Tried to create file that already exists: " + file.getFullPath());
@@ -9,6 +9,10 @@ package com.vainolo.phd.opp.utilities;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Formatter;
 import java.util.logging.Handler;
@@ -16,6 +20,13 @@ import java.util.logging.Level;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
+import com.google.common.collect.Lists;
+
+/**
+ * Logger used by all OPP components. The level is checked before anything else is done, so calls for disabled levels
+ * do not capture the stack or format the message. Messages that are expensive to create can be given as a
+ * {@link Supplier}, which is only called if the message is logged.
+ */
 public class OPPLogger {
   private static final Logger logger;
   private static OPPLogTargetHandler logHandler;
@@ -76,7 +87,20 @@ public class OPPLogger {
     return new String[] { className, stack[3].getMethodName() };
   }
 
+  public static boolean isLoggable(Level level) {
+    return logger.isLoggable(level);
+  }
+
+  /**
+   * Wait until all the messages logged so far were written to the log target.
+   */
+  public static void flush() {
+    logHandler.flush();
+  }
+
   private static void log(Level level, String msg, Object[] params) {
+    if (!logger.isLoggable(level))
+      return;
     String[] classAndMethod = getClassNameAndMethodName(Thread.currentThread().getStackTrace());
     logger.logp(level, classAndMethod[0], classAndMethod[1], msg, params);
   }
@@ -85,54 +109,148 @@ public class OPPLogger {
     logger.setLevel(level);
   }
 
+  public static Level getLevel() {
+    return logger.getLevel();
+  }
+
   public static void logInfo(String msg) {
     log(Level.INFO, msg, null);
   }
 
+  public static void logInfo(String msg, Object param) {
+    if (logger.isLoggable(Level.INFO))
+      log(Level.INFO, msg, new Object[] { param });
+  }
+
+  public static void logInfo(String msg, Object param1, Object param2) {
+    if (logger.isLoggable(Level.INFO))
+      log(Level.INFO, msg, new Object[] { param1, param2 });
+  }
+
   public static void logInfo(String msg, Object... params) {
     log(Level.INFO, msg, params);
   }
 
+  public static void logInfo(Supplier<String> msg) {
+    if (logger.isLoggable(Level.INFO))
+      log(Level.INFO, msg.get(), null);
+  }
+
   public static void logWarning(String msg) {
     log(Level.WARNING, msg, null);
   }
 
+  public static void logWarning(String msg, Object param) {
+    if (logger.isLoggable(Level.WARNING))
+      log(Level.WARNING, msg, new Object[] { param });
+  }
+
+  public static void logWarning(String msg, Object param1, Object param2) {
+    if (logger.isLoggable(Level.WARNING))
+      log(Level.WARNING, msg, new Object[] { param1, param2 });
+  }
+
   public static void logWarning(String msg, Object... params) {
     log(Level.WARNING, msg, params);
   }
 
+  public static void logWarning(Supplier<String> msg) {
+    if (logger.isLoggable(Level.WARNING))
+      log(Level.WARNING, msg.get(), null);
+  }
+
   public static void logSevere(String msg) {
     log(Level.SEVERE, msg, null);
   }
 
+  public static void logSevere(String msg, Object param) {
+    if (logger.isLoggable(Level.SEVERE))
+      log(Level.SEVERE, msg, new Object[] { param });
+  }
+
+  public static void logSevere(String msg, Object param1, Object param2) {
+    if (logger.isLoggable(Level.SEVERE))
+      log(Level.SEVERE, msg, new Object[] { param1, param2 });
+  }
+
   public static void logSevere(String msg, Object... params) {
     log(Level.SEVERE, msg, params);
   }
 
+  public static void logSevere(Supplier<String> msg) {
+    if (logger.isLoggable(Level.SEVERE))
+      log(Level.SEVERE, msg.get(), null);
+  }
+
   public static void logFine(String msg) {
     log(Level.FINE, msg, null);
   }
 
+  public static void logFine(String msg, Object param) {
+    if (logger.isLoggable(Level.FINE))
+      log(Level.FINE, msg, new Object[] { param });
+  }
+
+  public static void logFine(String msg, Object param1, Object param2) {
+    if (logger.isLoggable(Level.FINE))
+      log(Level.FINE, msg, new Object[] { param1, param2 });
+  }
+
   public static void logFine(String msg, Object... params) {
     log(Level.FINE, msg, params);
   }
 
+  public static void logFine(Supplier<String> msg) {
+    if (logger.isLoggable(Level.FINE))
+      log(Level.FINE, msg.get(), null);
+  }
+
   public static void logFiner(String msg) {
     log(Level.FINER, msg, null);
   }
 
+  public static void logFiner(String msg, Object param) {
+    if (logger.isLoggable(Level.FINER))
+      log(Level.FINER, msg, new Object[] { param });
+  }
+
+  public static void logFiner(String msg, Object param1, Object param2) {
+    if (logger.isLoggable(Level.FINER))
+      log(Level.FINER, msg, new Object[] { param1, param2 });
+  }
+
   public static void logFiner(String msg, Object... params) {
     log(Level.FINER, msg, params);
   }
 
+  public static void logFiner(Supplier<String> msg) {
+    if (logger.isLoggable(Level.FINER))
+      log(Level.FINER, msg.get(), null);
+  }
+
   public static void logFinest(String msg) {
     log(Level.FINEST, msg, null);
   }
 
+  public static void logFinest(String msg, Object param) {
+    if (logger.isLoggable(Level.FINEST))
+      log(Level.FINEST, msg, new Object[] { param });
+  }
+
+  public static void logFinest(String msg, Object param1, Object param2) {
+    if (logger.isLoggable(Level.FINEST))
+      log(Level.FINEST, msg, new Object[] { param1, param2 });
+  }
+
   public static void logFinest(String msg, Object... params) {
     log(Level.FINEST, msg, params);
   }
 
+  public static void logFinest(Supplier<String> msg) {
+    if (logger.isLoggable(Level.FINEST))
+      log(Level.FINEST, msg.get(), null);
+  }
+
   public static void main(String args[]) {
     OPPLogger.logInfo("Hello");
     logger.setLevel(Level.FINEST);
@@ -141,17 +259,70 @@ public class OPPLogger {
     OPPLogger.logInfo("Hello {0}", "hello");
   }
 
+  /**
+   * Handler that writes to an {@link OPPLogTarget} from a separate thread, so that slow targets like the UI console do
+   * not slow down the logging thread. Formatted messages are passed to the writer thread through a bounded buffer, and
+   * the logging thread only waits if the buffer is full.
+   */
   static class OPPLogTargetHandler extends Handler {
 
-    private OPPLogTarget target;
+    private static final int BUFFER_SIZE = 4096;
+
+    private volatile OPPLogTarget target;
+    private final BlockingQueue<String> buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+    private final Object lock = new Object();
+    private long published = 0;
+    private long written = 0;
+    private Thread writer;
 
     @Override
     public void publish(LogRecord record) {
-      if (!isLoggable(record))
+      if (target == null || !isLoggable(record))
         return;
       String msg = getFormatter().format(record);
-      if (target != null)
-        target.appendLine(msg);
+      synchronized (lock) {
+        startWriter();
+        published++;
+      }
+      try {
+        buffer.put(msg);
+      } catch (InterruptedException e) {
+        synchronized (lock) {
+          published--;
+          lock.notifyAll();
+        }
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private void startWriter() {
+      if (writer != null)
+        return;
+      writer = new Thread(this::write, "OPP Log Writer");
+      writer.setDaemon(true);
+      writer.start();
+    }
+
+    private void write() {
+      List<String> lines = Lists.newArrayList();
+      while (true) {
+        try {
+          lines.add(buffer.take());
+        } catch (InterruptedException e) {
+          continue;
+        }
+        buffer.drainTo(lines);
+        OPPLogTarget currentTarget = target;
+        for (String line : lines) {
+          if (currentTarget != null)
+            currentTarget.appendLine(line);
+        }
+        synchronized (lock) {
+          written += lines.size();
+          lock.notifyAll();
+        }
+        lines.clear();
+      }
     }
 
     public void setTarget(OPPLogTarget target) {
@@ -160,6 +331,17 @@ public class OPPLogger {
 
     @Override
     public void flush() {
+      synchronized (lock) {
+        long waitFor = published;
+        while (written < waitFor && written < published) {
+          try {
+            lock.wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
     }
 
     @Override
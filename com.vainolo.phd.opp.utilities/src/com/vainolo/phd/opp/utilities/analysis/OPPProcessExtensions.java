@@ -16,6 +16,7 @@ import com.vainolo.phd.opp.model.OPPLink;
 import com.vainolo.phd.opp.model.OPPProceduralLink;
 import com.vainolo.phd.opp.model.OPPProceduralLinkKind;
 import com.vainolo.phd.opp.model.OPPProcess;
+import com.vainolo.phd.opp.utilities.OPPConstants;
 
 public class OPPProcessExtensions {
 
@@ -45,6 +46,20 @@ public class OPPProcessExtensions {
     return (Collection) Collections2.filter(process.getOutgoingLinks(), IsAgentLink.INSTANCE);
   }
 
+  /**
+   * A process is pure if its description contains the {@link OPPConstants#OPP_PURE_PROCESS_MARKER} word. The results of
+   * pure processes can be reused when they are invoked again with the same arguments.
+   */
+  public static boolean isPure(OPPProcess process) {
+    if (process == null || process.getDescription() == null)
+      return false;
+    for (String word : process.getDescription().trim().split("\\s+")) {
+      if (OPPConstants.OPP_PURE_PROCESS_MARKER.equalsIgnoreCase(word))
+        return true;
+    }
+    return false;
+  }
+
   public enum IsAgentLink implements Predicate<OPPLink> {
     INSTANCE;
 